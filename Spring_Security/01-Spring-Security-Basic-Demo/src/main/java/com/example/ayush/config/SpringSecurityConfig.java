@@ -1,5 +1,8 @@
 package com.example.ayush.config;
 
+import com.example.ayush.userstore.CompactUserDetailsService;
+import com.example.ayush.userstore.CompactUserStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -8,18 +11,18 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.web.authentication.logout.HttpStatusReturningLogoutSuccessHandler;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Path;
 
 @Configuration
 @EnableWebSecurity
+@EnableScheduling // Polls the users file for hot reload
 public class SpringSecurityConfig {
 
     /**
@@ -32,23 +35,21 @@ public class SpringSecurityConfig {
 
     /**
      * Defines the user details service with in-memory users.
+     * Users come from the file at {@code users.store.path} (reloaded when it changes) or, if that is not set,
+     * the two demo accounts below. Either way they are held in a compact store rather than an
+     * InMemoryUserDetailsManager, which keeps a full User object graph per account.
      */
     @Bean
-    public UserDetailsService userDetailsService() {
-        UserDetails user = User.builder()
-                .username("user")
-                .password(passwordEncoder().encode("user123"))
-                .roles("USER")
-                .build();
+    public CompactUserDetailsService userDetailsService(@Value("${users.store.path:}") String usersFile) {
+        if (!usersFile.isBlank()) {
+            return new CompactUserDetailsService(Path.of(usersFile));
+        }
 
-        UserDetails admin = User.builder()
-                .username("admin")
-                .password(passwordEncoder().encode("admin123"))
-                .roles("ADMIN")
+        CompactUserStore store = CompactUserStore.builder()
+                .add("user", passwordEncoder().encode("user123"), "USER")
+                .add("admin", passwordEncoder().encode("admin123"), "ADMIN")
                 .build();
-
-        // The InMemoryUserDetailsManager holds the user details in memory
-        return new InMemoryUserDetailsManager(user, admin);
+        return new CompactUserDetailsService(store);
     }
 
     /**
@@ -0,0 +1,105 @@
+package com.example.ayush.userstore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * {@link UserDetailsService} backed by a {@link CompactUserStore} snapshot.
+ * <p>
+ * When created from a users file, the file is checked every {@code users.store.reload-check-ms} and reloaded when
+ * its modification time or size changes. A reload builds a complete new snapshot off to the side and then swaps it
+ * in with a single volatile write, so lookups never block and never see a half-loaded store. If the new file does
+ * not parse, the current snapshot stays in place. Replace the file atomically (write a temporary file, then move it
+ * over the old one) so a reload never maps a file that is still being written.
+ */
+public class CompactUserDetailsService implements UserDetailsService {
+
+    private static final Logger log = LoggerFactory.getLogger(CompactUserDetailsService.class);
+
+    private final Path file;
+
+    private volatile CompactUserStore store;
+
+    // Attributes of the file version last loaded or last rejected, so a broken file is only retried once it changes
+    private FileTime checkedModifiedTime;
+    private long checkedSize;
+
+    /**
+     * A fixed set of users that is never reloaded.
+     */
+    public CompactUserDetailsService(CompactUserStore store) {
+        this.file = null;
+        this.store = store;
+    }
+
+    /**
+     * Users loaded from {@code file}, reloaded whenever it changes.
+     */
+    public CompactUserDetailsService(Path file) {
+        this.file = file;
+        try {
+            reload();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load users from " + file, e);
+        }
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Read the snapshot once so every field comes from the same version
+        CompactUserStore snapshot = store;
+        // Whatever case it was typed in, the principal carries the stored name
+        String name = CompactUserStore.normalize(username);
+        int index = snapshot.indexOf(name);
+        if (index < 0) {
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
+        return new User(name, snapshot.password(index), snapshot.authorities(index));
+    }
+
+    public CompactUserStore getStore() {
+        return store;
+    }
+
+    /**
+     * Loads the users file into a new snapshot and swaps it in.
+     */
+    public synchronized void reload() throws IOException {
+        if (file == null) {
+            throw new IllegalStateException("These users were not loaded from a file");
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        checkedModifiedTime = attributes.lastModifiedTime();
+        checkedSize = attributes.size();
+        store = CompactUserStoreLoader.load(file);
+    }
+
+    @Scheduled(fixedDelayString = "${users.store.reload-check-ms:5000}")
+    public synchronized void reloadIfChanged() {
+        if (file == null) {
+            return;
+        }
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            if (attributes.lastModifiedTime().equals(checkedModifiedTime) && attributes.size() == checkedSize) {
+                return;
+            }
+            reload();
+            log.info("Reloaded {} users from {}", store.size(), file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Keeping the current {} users; reloading {} failed: {}", store.size(), file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.ayush.userstore;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Immutable, compact snapshot of user accounts.
+ * <p>
+ * Instead of one {@code User} object graph per account, every username and password hash lives in two
+ * contiguous byte arrays addressed by offset, each account points at an interned role set by a
+ * {@code short} id, and usernames are found through an open-addressing (linear probing) index.
+ * That is a handful of array slots per account rather than half a dozen objects, and nothing for the GC to trace
+ * beyond the arrays themselves.
+ * <p>
+ * Usernames are case-insensitive, as with {@code InMemoryUserDetailsManager}: they are stored lower-cased
+ * (see {@link #normalize(String)}) and lookups are lower-cased the same way.
+ */
+public final class CompactUserStore {
+
+    private static final int EMPTY = -1;
+
+    private final int size;
+
+    // Account i's normalized username is usernames[usernameOffsets[i] .. usernameOffsets[i + 1]), UTF-8
+    private final byte[] usernames;
+    private final int[] usernameOffsets;
+
+    // Account i's encoded password (e.g. a BCrypt hash) is passwords[passwordOffsets[i] .. passwordOffsets[i + 1]), UTF-8
+    private final byte[] passwords;
+    private final int[] passwordOffsets;
+
+    private final short[] roleSetIds;
+    private final List<List<GrantedAuthority>> roleSets;
+
+    // Open-addressing index: slot -> account, EMPTY if free; slotHashes lets most probes skip the byte comparison
+    private final int[] slots;
+    private final int[] slotHashes;
+
+    private CompactUserStore(Builder builder) {
+        this.size = builder.size;
+        this.usernames = Arrays.copyOf(builder.usernames, builder.usernamesLength);
+        this.usernameOffsets = Arrays.copyOf(builder.usernameOffsets, size + 1);
+        this.passwords = Arrays.copyOf(builder.passwords, builder.passwordsLength);
+        this.passwordOffsets = Arrays.copyOf(builder.passwordOffsets, size + 1);
+        this.roleSetIds = Arrays.copyOf(builder.roleSetIds, size);
+        this.roleSets = List.copyOf(builder.roleSets);
+
+        // Load factor of at most 0.5 keeps linear probe sequences short
+        int capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+        this.slots = new int[capacity];
+        this.slotHashes = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        for (int i = 0; i < size; i++) {
+            int start = usernameOffsets[i];
+            int hash = hash(usernames, start, usernameOffsets[i + 1] - start);
+            int slot = hash & (capacity - 1);
+            while (slots[slot] != EMPTY) {
+                if (slotHashes[slot] == hash && usernameEquals(slots[slot], usernames, start, usernameOffsets[i + 1] - start)) {
+                    throw new IllegalArgumentException("Duplicate username: "
+                            + new String(usernames, start, usernameOffsets[i + 1] - start, StandardCharsets.UTF_8));
+                }
+                slot = (slot + 1) & (capacity - 1);
+            }
+            slots[slot] = i;
+            slotHashes[slot] = hash;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The form usernames are stored and looked up in: lower-cased with {@link Locale#ROOT}, so the result doesn't
+     * depend on the default locale (unlike {@code InMemoryUserDetailsManager}'s plain {@code toLowerCase()}).
+     */
+    public static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Index of the account with this username in any letter case, or -1 if there is none.
+     */
+    public int indexOf(String username) {
+        byte[] key = normalize(username).getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key, 0, key.length);
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (slotHashes[slot] == hash && usernameEquals(slots[slot], key, 0, key.length)) {
+                return slots[slot];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The account's username, normalized.
+     */
+    public String username(int index) {
+        int start = usernameOffsets[index];
+        return new String(usernames, start, usernameOffsets[index + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    public String password(int index) {
+        int start = passwordOffsets[index];
+        return new String(passwords, start, passwordOffsets[index + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The account's authorities; the same list instance is shared by every account with the same roles.
+     */
+    public List<GrantedAuthority> authorities(int index) {
+        return roleSets.get(roleSetIds[index]);
+    }
+
+    /**
+     * Bytes held by this snapshot's arrays (object headers included, shared authority lists excluded).
+     */
+    public long footprintBytes() {
+        return arrayBytes(usernames.length, 1) + arrayBytes(usernameOffsets.length, 4)
+                + arrayBytes(passwords.length, 1) + arrayBytes(passwordOffsets.length, 4)
+                + arrayBytes(roleSetIds.length, 2)
+                + arrayBytes(slots.length, 4) + arrayBytes(slotHashes.length, 4);
+    }
+
+    private boolean usernameEquals(int index, byte[] key, int keyStart, int keyLength) {
+        int start = usernameOffsets[index];
+        return Arrays.equals(usernames, start, usernameOffsets[index + 1], key, keyStart, keyStart + keyLength);
+    }
+
+    // FNV-1a with a murmur3 finalizer, so sequential names ("svc-000001", "svc-000002", ...) spread over the table
+    private static int hash(byte[] bytes, int start, int length) {
+        int h = 0x811c9dc5;
+        for (int i = start; i < start + length; i++) {
+            h = (h ^ bytes[i]) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    private static long arrayBytes(int length, int elementSize) {
+        return 16 + (long) length * elementSize;
+    }
+
+    /**
+     * Accumulates accounts into growing buffers; {@link #build()} trims them and builds the index.
+     */
+    public static final class Builder {
+
+        private int size;
+        private byte[] usernames = new byte[1024];
+        private int usernamesLength;
+        private int[] usernameOffsets = new int[65];
+        private byte[] passwords = new byte[4096];
+        private int passwordsLength;
+        private int[] passwordOffsets = new int[65];
+        private short[] roleSetIds = new short[64];
+
+        // Role names -> role id, and sorted role ids -> role set id
+        private final Map<String, Integer> roleIds = new HashMap<>();
+        private final Map<List<Integer>, Short> roleSetIdsByRoles = new HashMap<>();
+        private final List<List<GrantedAuthority>> roleSets = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds an account. Roles are given without the {@code ROLE_} prefix, as with {@code User.builder().roles(...)}.
+         */
+        public Builder add(String username, String encodedPassword, String... roles) {
+            byte[] name = username.getBytes(StandardCharsets.UTF_8);
+            // Not just hashes: {noop} passwords may be any text
+            byte[] password = encodedPassword.getBytes(StandardCharsets.UTF_8);
+            return add(name, 0, name.length, password, 0, password.length, roleSetId(List.of(roles)));
+        }
+
+        Builder add(byte[] name, int nameStart, int nameLength,
+                    byte[] password, int passwordStart, int passwordLength, short roleSetId) {
+            if (nameLength == 0) {
+                throw new IllegalArgumentException("Empty username");
+            }
+            if (!isAscii(name, nameStart, nameLength)) {
+                // Lower-casing outside ASCII can change the UTF-8 length, so take the String route
+                byte[] normalized = normalize(new String(name, nameStart, nameLength, StandardCharsets.UTF_8))
+                        .getBytes(StandardCharsets.UTF_8);
+                name = normalized;
+                nameStart = 0;
+                nameLength = normalized.length;
+            }
+            ensureAccountCapacity();
+            usernames = ensureCapacity(usernames, usernamesLength + nameLength);
+            System.arraycopy(name, nameStart, usernames, usernamesLength, nameLength);
+            // ASCII names are lower-cased in place, as normalize() would
+            for (int i = usernamesLength; i < usernamesLength + nameLength; i++) {
+                if (usernames[i] >= 'A' && usernames[i] <= 'Z') {
+                    usernames[i] += 'a' - 'A';
+                }
+            }
+            usernamesLength += nameLength;
+            passwords = ensureCapacity(passwords, passwordsLength + passwordLength);
+            System.arraycopy(password, passwordStart, passwords, passwordsLength, passwordLength);
+            passwordsLength += passwordLength;
+
+            roleSetIds[size] = roleSetId;
+            size++;
+            usernameOffsets[size] = usernamesLength;
+            passwordOffsets[size] = passwordsLength;
+            return this;
+        }
+
+        /**
+         * Interns a role set and returns its id; accounts with the same roles share one authority list.
+         */
+        short roleSetId(List<String> roles) {
+            TreeSet<Integer> ids = new TreeSet<>();
+            for (String role : roles) {
+                if (role.startsWith("ROLE_")) {
+                    throw new IllegalArgumentException(role + " cannot start with ROLE_ (it is automatically added)");
+                }
+                ids.add(roleIds.computeIfAbsent(role, r -> roleIds.size()));
+            }
+            List<Integer> key = List.copyOf(ids);
+            Short id = roleSetIdsByRoles.get(key);
+            if (id == null) {
+                if (roleSets.size() > Short.MAX_VALUE) {
+                    throw new IllegalStateException("More than " + (Short.MAX_VALUE + 1) + " distinct role sets");
+                }
+                id = (short) roleSets.size();
+                roleSetIdsByRoles.put(key, id);
+                roleSets.add(roles.stream()
+                        .distinct()
+                        .sorted()
+                        .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                        .toList());
+            }
+            return id;
+        }
+
+        public CompactUserStore build() {
+            return new CompactUserStore(this);
+        }
+
+        private static boolean isAscii(byte[] bytes, int start, int length) {
+            for (int i = start; i < start + length; i++) {
+                if (bytes[i] < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void ensureAccountCapacity() {
+            if (size + 1 == roleSetIds.length) {
+                int capacity = roleSetIds.length * 2;
+                roleSetIds = Arrays.copyOf(roleSetIds, capacity);
+                usernameOffsets = Arrays.copyOf(usernameOffsets, capacity + 1);
+                passwordOffsets = Arrays.copyOf(passwordOffsets, capacity + 1);
+            }
+        }
+
+        private static byte[] ensureCapacity(byte[] buffer, int required) {
+            if (required <= buffer.length) {
+                return buffer;
+            }
+            return Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+}
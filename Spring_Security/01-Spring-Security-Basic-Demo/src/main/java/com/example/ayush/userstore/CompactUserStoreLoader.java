@@ -0,0 +1,125 @@
+package com.example.ayush.userstore;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a {@link CompactUserStore} from a memory-mapped UTF-8 users file, one account per line:
+ * <pre>
+ * # comment
+ * username:encodedPassword:ROLE1,ROLE2
+ * </pre>
+ * Roles are written without the {@code ROLE_} prefix. The username ends at the first colon and the roles start
+ * after the last one, so the encoded password may itself contain colons. Usernames are case-insensitive, so two
+ * lines naming {@code Alice} and {@code alice} are duplicates.
+ * <p>
+ * The file is mapped rather than read into a String, and name and password bytes are copied straight from the
+ * mapping into the store's buffers instead of going through per-account Strings. The mapping is released as soon
+ * as the load finishes, so the file can be replaced for the next reload.
+ */
+public final class CompactUserStoreLoader {
+
+    private CompactUserStoreLoader() {
+    }
+
+    public static CompactUserStore load(Path file) throws IOException {
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return parse(segment, file);
+        }
+    }
+
+    private static CompactUserStore parse(MemorySegment segment, Path file) {
+        CompactUserStore.Builder builder = CompactUserStore.builder();
+        // Most accounts share a handful of role lists; parse each distinct one once
+        Map<String, Short> roleSetIds = new HashMap<>();
+        byte[] name = new byte[256];
+        byte[] password = new byte[256];
+        byte[] roles = new byte[256];
+        int previousRolesLength = -1;
+        byte[] previousRoles = new byte[256];
+        short previousRoleSetId = 0;
+
+        long length = segment.byteSize();
+        int lineNumber = 0;
+        for (long lineStart = 0; lineStart < length; ) {
+            lineNumber++;
+            long lineEnd = lineStart;
+            long firstColon = -1;
+            long lastColon = -1;
+            while (lineEnd < length) {
+                byte b = segment.get(ValueLayout.JAVA_BYTE, lineEnd);
+                if (b == '\n') {
+                    break;
+                }
+                if (b == ':') {
+                    lastColon = lineEnd;
+                    if (firstColon < 0) {
+                        firstColon = lineEnd;
+                    }
+                }
+                lineEnd++;
+            }
+            long next = lineEnd + 1;
+            if (lineEnd > lineStart && segment.get(ValueLayout.JAVA_BYTE, lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+
+            if (lineEnd > lineStart && segment.get(ValueLayout.JAVA_BYTE, lineStart) != '#') {
+                if (firstColon < 0 || firstColon == lastColon) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": expected username:password:roles");
+                }
+                int nameLength = (int) (firstColon - lineStart);
+                int passwordLength = (int) (lastColon - firstColon - 1);
+                name = copy(segment, lineStart, nameLength, name);
+                password = copy(segment, firstColon + 1, passwordLength, password);
+
+                int rolesLength = (int) (lineEnd - lastColon - 1);
+                roles = copy(segment, lastColon + 1, rolesLength, roles);
+                try {
+                    // Files are usually grouped by role list, so most lines repeat the previous one's
+                    if (rolesLength != previousRolesLength
+                            || !Arrays.equals(roles, 0, rolesLength, previousRoles, 0, rolesLength)) {
+                        String text = new String(roles, 0, rolesLength, StandardCharsets.UTF_8);
+                        previousRoleSetId = roleSetIds.computeIfAbsent(text, r -> builder.roleSetId(splitRoles(r)));
+                        previousRoles = Arrays.copyOf(roles, roles.length);
+                        previousRolesLength = rolesLength;
+                    }
+                    builder.add(name, 0, nameLength, password, 0, passwordLength, previousRoleSetId);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+            lineStart = next;
+        }
+        try {
+            return builder.build();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] copy(MemorySegment segment, long offset, int length, byte[] buffer) {
+        byte[] target = length <= buffer.length ? buffer : Arrays.copyOf(buffer, Math.max(length, buffer.length * 2));
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, offset, target, 0, length);
+        return target;
+    }
+
+    private static List<String> splitRoles(String roles) {
+        return Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.ayush;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Allocation budgets for requests through the form-login security filter chain.
+ * Budgets live in {@code allocation-budgets.properties}; see {@link AllocationBudgets}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthenticatedRequestAllocationTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void authenticatedRequest() throws Exception {
+        // Log in once; maximumSessions(1) refuses a second concurrent login for the same user
+        MvcResult login = mockMvc.perform(formLogin().user("user").password("user123"))
+                .andExpect(authenticated())
+                .andReturn();
+        MockHttpSession session = (MockHttpSession) login.getRequest().getSession(false);
+
+        long bytes = AllocationBudgets.bytesPerOperation(2_000, 10_000,
+                () -> perform(get("/balance").session(session), 200));
+        AllocationBudgets.assertWithinBudget("form-login-chain.authenticated", bytes);
+    }
+
+    @Test
+    void anonymousRequest() {
+        long bytes = AllocationBudgets.bytesPerOperation(2_000, 10_000,
+                () -> perform(get("/"), 200));
+        AllocationBudgets.assertWithinBudget("form-login-chain.anonymous", bytes);
+    }
+
+    private void perform(RequestBuilder request, int expectedStatus) {
+        try {
+            int status = mockMvc.perform(request).andReturn().getResponse().getStatus();
+            if (status != expectedStatus) {
+                throw new AssertionError("Expected status " + expectedStatus + " but was " + status);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.ayush.userstore;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompactUserDetailsServiceTest {
+
+    private static final String HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3KqOHMUGzcHGGlL3ekDT.8K";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void loadsAccountsFromTheUsersFile() throws IOException {
+        Path file = write("users.txt", """
+                # service accounts
+                Alice:%1$s:USER
+                bob:{noop}pass:word:USER, ADMIN\r
+
+                carol:%1$s:ADMIN,USER
+                dörte:{noop}pässwörd€:USER
+                """.formatted(HASH));
+
+        CompactUserDetailsService service = new CompactUserDetailsService(file);
+
+        UserDetails alice = service.loadUserByUsername("alice");
+        assertEquals("alice", alice.getUsername());
+        assertEquals(HASH, alice.getPassword());
+        assertEquals(List.of("ROLE_USER"), names(alice));
+
+        // The password may contain colons; roles start after the last one
+        assertEquals("{noop}pass:word", service.loadUserByUsername("bob").getPassword());
+        assertEquals(List.of("ROLE_ADMIN", "ROLE_USER"), names(service.loadUserByUsername("bob")));
+
+        // Names and plain-text passwords aren't limited to ASCII
+        assertEquals("{noop}pässwörd€", service.loadUserByUsername("dörte").getPassword());
+        assertEquals("{noop}pässwörd€", CompactUserStore.builder().add("dörte", "{noop}pässwörd€", "USER").build().password(0));
+
+        // Same roles in any order intern to one shared authority list
+        CompactUserStore store = service.getStore();
+        assertSame(store.authorities(store.indexOf("bob")), store.authorities(store.indexOf("carol")));
+
+        // Usernames ignore case, as with InMemoryUserDetailsManager, and come back lower-cased
+        assertEquals("alice", service.loadUserByUsername("ALICE").getUsername());
+        assertEquals("alice", store.username(store.indexOf("aLiCe")));
+        assertEquals("dörte", service.loadUserByUsername("DÖRTE").getUsername());
+        assertEquals(store.indexOf("dörte"), store.indexOf("Dörte"));
+
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("dave"));
+    }
+
+    @Test
+    void findsEveryAccountInALargeStore() {
+        CompactUserStore.Builder builder = CompactUserStore.builder();
+        for (int i = 0; i < 50_000; i++) {
+            builder.add("svc-" + i, HASH, i % 2 == 0 ? "USER" : "ADMIN");
+        }
+        CompactUserStore store = builder.build();
+
+        assertEquals(50_000, store.size());
+        for (int i = 0; i < 50_000; i++) {
+            int index = store.indexOf("svc-" + i);
+            assertEquals("svc-" + i, store.username(index));
+        }
+        assertEquals(-1, store.indexOf("svc-50000"));
+    }
+
+    @Test
+    void rejectsDuplicateUsernamesInAnyCase() {
+        CompactUserStore.Builder builder = CompactUserStore.builder()
+                .add("alice", HASH, "USER")
+                .add("alice", HASH, "ADMIN");
+        assertThrows(IllegalArgumentException.class, builder::build);
+
+        CompactUserStore.Builder differentCase = CompactUserStore.builder()
+                .add("alice", HASH, "USER")
+                .add("ALICE", HASH, "ADMIN");
+        assertThrows(IllegalArgumentException.class, differentCase::build);
+    }
+
+    @Test
+    void swapsInAChangedFileAndKeepsTheOldSnapshotWhenItIsBroken() throws IOException {
+        Path file = write("users.txt", "alice:" + HASH + ":USER\n");
+        CompactUserDetailsService service = new CompactUserDetailsService(file);
+
+        replace(file, "alice:" + HASH + ":ADMIN\nbob:" + HASH + ":USER\n", 1);
+        service.reloadIfChanged();
+        assertEquals(List.of("ROLE_ADMIN"), names(service.loadUserByUsername("alice")));
+        assertEquals("bob", service.loadUserByUsername("bob").getUsername());
+
+        CompactUserStore beforeBrokenFile = service.getStore();
+        replace(file, "not a valid line\n", 2);
+        service.reloadIfChanged();
+        assertSame(beforeBrokenFile, service.getStore());
+        assertEquals("bob", service.loadUserByUsername("bob").getUsername());
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(dir.resolve(name), content);
+    }
+
+    // Atomically replaces the file, as operators are told to, with a distinct modification time
+    private void replace(Path file, String content, int secondsLater) throws IOException {
+        Path temp = write(file.getFileName() + ".tmp", content);
+        Files.setLastModifiedTime(temp, FileTime.from(Instant.now().plusSeconds(secondsLater)));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static List<String> names(UserDetails user) {
+        return user.getAuthorities().stream().map(GrantedAuthority::getAuthority).sorted().toList();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.ayush.userstore;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Reports retained heap and lookup latency of {@link CompactUserDetailsService} against the
+ * {@link InMemoryUserDetailsManager} it replaced, both loaded from the same users file.
+ * <p>
+ * Only prints figures: retained heap is read after {@code System.gc()}, which is too imprecise to assert on.
+ * Excluded from the default build; run it with {@code mvn test -Pbenchmarks}. Defaults to 100k accounts to stay
+ * within the default test heap; for the 500k target add {@code -Duserstore.accounts=500000 -DargLine=-Xmx2g}.
+ */
+@Tag("benchmark")
+class UserStoreFootprintReportTests {
+
+    private static final int ACCOUNTS = Integer.getInteger("userstore.accounts", 100_000);
+    private static final String[] ROLES = {"USER", "USER", "USER", "ADMIN"};
+    private static final String HASH_ALPHABET = "./ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reportRetainedHeapAndLookupLatency() throws IOException {
+        Path file = writeUsersFile(dir.resolve("users.txt"));
+        String[] usernames = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            usernames[i] = username(i);
+        }
+
+        Retained<InMemoryUserDetailsManager> manager = retained(() -> loadManager(file));
+        Retained<CompactUserDetailsService> compact = retained(() -> new CompactUserDetailsService(file));
+
+        System.out.printf("%,d accounts%n", ACCOUNTS);
+        report("InMemoryUserDetailsManager", manager, usernames);
+        report("CompactUserDetailsService", compact, usernames);
+        System.out.printf("  compact store arrays: %,d bytes (%d per account)%n",
+                compact.value().getStore().footprintBytes(), compact.value().getStore().footprintBytes() / ACCOUNTS);
+    }
+
+    private static void report(String name, Retained<? extends UserDetailsService> service, String[] usernames) {
+        long[] latencies = lookupNanos(service.value(), usernames);
+        System.out.printf("  %-28s retained %,12d bytes (%4d per account), lookup p50 %,6dns p99 %,6dns%n",
+                name, service.bytes(), service.bytes() / ACCOUNTS,
+                latencies[latencies.length / 2], latencies[latencies.length * 99 / 100]);
+    }
+
+    private static long[] lookupNanos(UserDetailsService service, String[] usernames) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 200_000; i++) {
+            service.loadUserByUsername(usernames[random.nextInt(usernames.length)]);
+        }
+        long[] samples = new long[100_000];
+        for (int i = 0; i < samples.length; i++) {
+            String username = usernames[random.nextInt(usernames.length)];
+            long start = System.nanoTime();
+            service.loadUserByUsername(username);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    // What the previous configuration would have to do with the same file
+    private static InMemoryUserDetailsManager loadManager(Path file) {
+        try {
+            InMemoryUserDetailsManager manager = new InMemoryUserDetailsManager();
+            for (String line : Files.readAllLines(file)) {
+                String[] fields = line.split(":");
+                manager.createUser(User.withUsername(fields[0]).password(fields[1]).roles(fields[2].split(",")).build());
+            }
+            return manager;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Path writeUsersFile(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            char[] hash = "$2a$10$".concat(" ".repeat(53)).toCharArray();
+            for (int i = 0; i < ACCOUNTS; i++) {
+                // A distinct BCrypt-shaped hash per account; real hashing would take minutes
+                for (int c = 7; c < hash.length; c++) {
+                    hash[c] = HASH_ALPHABET.charAt(random.nextInt(HASH_ALPHABET.length()));
+                }
+                writer.write(username(i) + ":" + new String(hash) + ":" + ROLES[i % ROLES.length] + "\n");
+            }
+        }
+        return file;
+    }
+
+    private static String username(int i) {
+        return "svc-%06d".formatted(i);
+    }
+
+    private static <T> Retained<T> retained(Supplier<T> load) {
+        long before = usedHeapAfterGc();
+        T value = load.get();
+        long bytes = usedHeapAfterGc() - before;
+        return new Retained<>(value, bytes);
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private record Retained<T>(T value, long bytes) {
+    }
+}
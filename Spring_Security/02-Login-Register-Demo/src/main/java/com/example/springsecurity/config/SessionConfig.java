@@ -0,0 +1,38 @@
+package com.example.springsecurity.config;
+
+import com.example.springsecurity.session.WriteBehindJdbcSessionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.time.Duration;
+
+/**
+ * Replaces the container's HttpSession with sessions stored in our database,
+ * so that every instance behind the load balancer sees the same logins.
+ */
+@Configuration
+@EnableSpringHttpSession
+@EnableScheduling
+public class SessionConfig {
+
+    @Bean
+    public WriteBehindJdbcSessionRepository sessionRepository(
+            JdbcTemplate jdbcTemplate,
+            @Value("${server.servlet.session.timeout}") Duration sessionTimeout,
+            @Value("${session.jdbc.flush-interval-ms}") long flushIntervalMillis,
+            @Value("${session.jdbc.flush-batch-size}") int flushBatchSize,
+            MeterRegistry meterRegistry) {
+        WriteBehindJdbcSessionRepository repository = new WriteBehindJdbcSessionRepository(jdbcTemplate,
+                SessionConfig.class.getClassLoader(), sessionTimeout, flushIntervalMillis, flushBatchSize);
+        Gauge.builder("session.jdbc.pending", repository, WriteBehindJdbcSessionRepository::getPendingAccessCount)
+                .description("Sessions with a last-access time not yet written to the database")
+                .register(meterRegistry);
+        return repository;
+    }
+}
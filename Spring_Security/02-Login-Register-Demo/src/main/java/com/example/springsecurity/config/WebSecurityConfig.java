@@ -15,6 +15,8 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 
 @Configuration
 @EnableWebSecurity
@@ -36,6 +38,14 @@ public class WebSecurityConfig {
         return daoAuthenticationProvider;
     }
 
+    /**
+     * Keeps the SecurityContext in the (shared) HttpSession, so a login survives across requests and nodes.
+     */
+    @Bean
+    public SecurityContextRepository securityContextRepository() {
+        return new HttpSessionSecurityContextRepository();
+    }
+
     @Bean
     @SneakyThrows
     public AuthenticationManager authenticationManager(AuthenticationConfiguration configuration) {
@@ -50,7 +60,9 @@ public class WebSecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(request -> request
                         .requestMatchers("/register", "/login").permitAll()
-                        .anyRequest().authenticated());
+                        .anyRequest().authenticated())
+                .securityContext(context -> context
+                        .securityContextRepository(securityContextRepository()));
 
         return http.build();
     }
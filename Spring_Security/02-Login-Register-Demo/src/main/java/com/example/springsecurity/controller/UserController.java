@@ -2,6 +2,8 @@ package com.example.springsecurity.controller;
 
 import com.example.springsecurity.entity.User;
 import com.example.springsecurity.repository.UserRepo;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -9,7 +11,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
@@ -24,11 +30,21 @@ public class UserController {
 
     private final AuthenticationManager authenticationManager;
 
+    private final SecurityContextRepository securityContextRepository;
+
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody User user) {
+    public ResponseEntity<?> login(@RequestBody User user, HttpServletRequest request, HttpServletResponse response) {
         UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(user.getEmail(), user.getPassword());
         Authentication authenticate = authenticationManager.authenticate(token);
         if(authenticate.isAuthenticated()){
+            // Rotate the id of any pre-login session (session fixation), then store the login in the shared session
+            if (request.getSession(false) != null) {
+                request.changeSessionId();
+            }
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authenticate);
+            SecurityContextHolder.setContext(context);
+            securityContextRepository.saveContext(context, request, response);
             return new ResponseEntity<>("User logged in successfully!", HttpStatus.OK);
         }else {
             return new ResponseEntity<>("Invalid user credentials!", HttpStatus.UNAUTHORIZED);
@@ -45,4 +61,9 @@ public class UserController {
             return new ResponseEntity<>("User registration failed!", HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    @GetMapping("/welcome")
+    public String welcome() {
+        return "Welcome! You are logged in.";
+    }
 }
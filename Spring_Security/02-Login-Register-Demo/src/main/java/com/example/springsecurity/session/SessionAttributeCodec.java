@@ -0,0 +1,93 @@
+package com.example.springsecurity.session;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Serializes all attributes of a session into one blob.
+ * <p>
+ * Format: one flag byte ({@link #DEFLATED} or {@link #PLAIN}), then a single Java serialization
+ * stream holding the attribute count followed by name/value pairs. Writing every attribute through
+ * one {@link ObjectOutputStream} means class descriptors (e.g. the SecurityContext and token
+ * classes) are written once per session rather than once per attribute, and the blob is only
+ * deflated when that actually makes it smaller.
+ */
+class SessionAttributeCodec {
+
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+
+    // Below this, deflate's header and dictionary warm-up cost more than they save
+    private static final int DEFLATE_THRESHOLD = 256;
+
+    private final ClassLoader classLoader;
+
+    SessionAttributeCodec(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    byte[] encode(Map<String, Object> attributes) {
+        try {
+            byte[] plain = serialize(attributes);
+            if (plain.length >= DEFLATE_THRESHOLD) {
+                ByteArrayOutputStream deflated = new ByteArrayOutputStream(plain.length / 2);
+                deflated.write(DEFLATED);
+                try (DeflaterOutputStream out = new DeflaterOutputStream(deflated)) {
+                    out.write(plain);
+                }
+                if (deflated.size() < plain.length + 1) {
+                    return deflated.toByteArray();
+                }
+            }
+            byte[] encoded = new byte[plain.length + 1];
+            encoded[0] = PLAIN;
+            System.arraycopy(plain, 0, encoded, 1, plain.length);
+            return encoded;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not serialize session attributes", e);
+        }
+    }
+
+    Map<String, Object> decode(byte[] encoded) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        if (encoded == null || encoded.length == 0) {
+            return attributes;
+        }
+        InputStream raw = new ByteArrayInputStream(encoded, 1, encoded.length - 1);
+        if (encoded[0] == DEFLATED) {
+            raw = new InflaterInputStream(raw);
+        }
+        try (ObjectInputStream in = new ConfigurableObjectInputStream(raw, classLoader)) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                attributes.put(in.readUTF(), in.readObject());
+            }
+            return attributes;
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Could not deserialize session attributes", e);
+        }
+    }
+
+    private byte[] serialize(Map<String, Object> attributes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeInt(attributes.size());
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                out.writeUTF(attribute.getKey());
+                out.writeObject(attribute.getValue());
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
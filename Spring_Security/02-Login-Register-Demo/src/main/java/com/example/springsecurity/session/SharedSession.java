@@ -0,0 +1,129 @@
+package com.example.springsecurity.session;
+
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Session handed out by {@link WriteBehindJdbcSessionRepository}.
+ * <p>
+ * Tracks whether anything other than the last-access time changed since it was loaded,
+ * which is what lets the repository skip the row write on the common read-only request.
+ */
+public class SharedSession implements Session {
+
+    private final MapSession delegate;
+
+    private boolean isNew;
+
+    // Attributes or timeout changed: the whole row must be rewritten
+    private boolean changed;
+
+    // Last-access time set since the last save; SessionRepositoryFilter saves the same session more than once
+    private boolean accessed;
+
+    // Id the row is currently stored under; differs from getId() after changeSessionId()
+    private String originalId;
+
+    SharedSession(MapSession delegate, boolean isNew) {
+        this.delegate = delegate;
+        this.isNew = isNew;
+        this.changed = isNew;
+        this.originalId = delegate.getId();
+    }
+
+    @Override
+    public String getId() {
+        return delegate.getId();
+    }
+
+    @Override
+    public String changeSessionId() {
+        return delegate.changeSessionId();
+    }
+
+    @Override
+    public <T> T getAttribute(String attributeName) {
+        return delegate.getAttribute(attributeName);
+    }
+
+    @Override
+    public Set<String> getAttributeNames() {
+        return delegate.getAttributeNames();
+    }
+
+    @Override
+    public void setAttribute(String attributeName, Object attributeValue) {
+        delegate.setAttribute(attributeName, attributeValue);
+        changed = true;
+    }
+
+    @Override
+    public void removeAttribute(String attributeName) {
+        delegate.removeAttribute(attributeName);
+        changed = true;
+    }
+
+    @Override
+    public Instant getCreationTime() {
+        return delegate.getCreationTime();
+    }
+
+    @Override
+    public void setLastAccessedTime(Instant lastAccessedTime) {
+        // Deliberately not a change: last-access updates are coalesced by the repository
+        delegate.setLastAccessedTime(lastAccessedTime);
+        accessed = true;
+    }
+
+    @Override
+    public Instant getLastAccessedTime() {
+        return delegate.getLastAccessedTime();
+    }
+
+    @Override
+    public void setMaxInactiveInterval(Duration interval) {
+        delegate.setMaxInactiveInterval(interval);
+        changed = true;
+    }
+
+    @Override
+    public Duration getMaxInactiveInterval() {
+        return delegate.getMaxInactiveInterval();
+    }
+
+    @Override
+    public boolean isExpired() {
+        return delegate.isExpired();
+    }
+
+    MapSession getDelegate() {
+        return delegate;
+    }
+
+    boolean isNew() {
+        return isNew;
+    }
+
+    boolean isChanged() {
+        return changed;
+    }
+
+    boolean isAccessed() {
+        return accessed;
+    }
+
+    String getOriginalId() {
+        return originalId;
+    }
+
+    void markSaved() {
+        isNew = false;
+        changed = false;
+        accessed = false;
+        originalId = delegate.getId();
+    }
+}
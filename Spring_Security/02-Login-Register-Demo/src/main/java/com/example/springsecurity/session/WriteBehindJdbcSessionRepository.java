@@ -0,0 +1,222 @@
+package com.example.springsecurity.session;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Spring Session repository over our own datasource, so a login on one node is visible on every node.
+ * <p>
+ * Unlike a naive JDBC store it does not write on every request. A request that only touches the
+ * session (the usual case once logged in) just records its last-access time in memory; those times
+ * are coalesced per session and flushed in one JDBC batch every {@code session.jdbc.flush-interval-ms}.
+ * Rows are only written synchronously when the session is created or its attributes change.
+ * <p>
+ * Because another node may hold a not-yet-flushed access, a session is only treated as expired
+ * once it has been idle for its timeout plus one flush interval.
+ */
+public class WriteBehindJdbcSessionRepository implements SessionRepository<SharedSession> {
+
+    private static final String INSERT_SESSION =
+            "INSERT INTO http_sessions (session_id, creation_time, last_access_time, max_inactive_seconds, expiry_time, attributes) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SESSION =
+            "UPDATE http_sessions SET last_access_time = ?, max_inactive_seconds = ?, expiry_time = ?, attributes = ? "
+                    + "WHERE session_id = ?";
+
+    private static final String UPDATE_SESSION_ID =
+            "UPDATE http_sessions SET session_id = ? WHERE session_id = ?";
+
+    // Never moves last_access_time backwards, whichever node flushes last. The expiry is computed in BIGINT:
+    // H2 otherwise types the parameter as INT, and seconds * 1000 as INT overflows for timeouts past 24 days
+    private static final String UPDATE_LAST_ACCESS =
+            "UPDATE http_sessions SET last_access_time = ?, "
+                    + "expiry_time = CASE WHEN max_inactive_seconds < 0 THEN expiry_time "
+                    + "ELSE CAST(? AS BIGINT) + CAST(max_inactive_seconds AS BIGINT) * 1000 END "
+                    + "WHERE session_id = ? AND last_access_time < ?";
+
+    private static final String SELECT_SESSION =
+            "SELECT creation_time, last_access_time, max_inactive_seconds, attributes FROM http_sessions WHERE session_id = ?";
+
+    private static final String DELETE_SESSION =
+            "DELETE FROM http_sessions WHERE session_id = ?";
+
+    private static final String DELETE_EXPIRED_SESSIONS =
+            "DELETE FROM http_sessions WHERE expiry_time < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final SessionAttributeCodec codec;
+
+    private final Duration defaultMaxInactiveInterval;
+
+    private final long flushIntervalMillis;
+
+    private final int flushBatchSize;
+
+    // Session id -> latest last-access time (epoch millis) not yet written to the database
+    private final ConcurrentMap<String, Long> pendingAccessTimes = new ConcurrentHashMap<>();
+
+    public WriteBehindJdbcSessionRepository(JdbcTemplate jdbcTemplate, ClassLoader classLoader,
+                                            Duration defaultMaxInactiveInterval, long flushIntervalMillis, int flushBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.codec = new SessionAttributeCodec(classLoader);
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    @Override
+    public SharedSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return new SharedSession(session, true);
+    }
+
+    @Override
+    public void save(SharedSession session) {
+        String id = session.getId();
+        long lastAccess = session.getLastAccessedTime().toEpochMilli();
+
+        if (session.isNew()) {
+            jdbcTemplate.update(INSERT_SESSION, id, session.getCreationTime().toEpochMilli(), lastAccess,
+                    maxInactiveSeconds(session), expiryTime(session), codec.encode(attributesOf(session)));
+            session.markSaved();
+            return;
+        }
+
+        String originalId = session.getOriginalId();
+        if (!id.equals(originalId)) {
+            // Session fixation protection rotated the id; carry the row and any pending access over
+            jdbcTemplate.update(UPDATE_SESSION_ID, id, originalId);
+            Long pending = pendingAccessTimes.remove(originalId);
+            if (pending != null) {
+                pendingAccessTimes.merge(id, pending, Math::max);
+            }
+        }
+
+        if (session.isChanged()) {
+            jdbcTemplate.update(UPDATE_SESSION, lastAccess, maxInactiveSeconds(session), expiryTime(session),
+                    codec.encode(attributesOf(session)), id);
+            pendingAccessTimes.remove(id, lastAccess);
+        } else if (session.isAccessed()) {
+            pendingAccessTimes.merge(id, lastAccess, Math::max);
+        }
+        session.markSaved();
+    }
+
+    @Override
+    public SharedSession findById(String id) {
+        List<MapSession> found = jdbcTemplate.query(SELECT_SESSION, (rs, rowNum) -> {
+            MapSession session = new MapSession(id);
+            session.setCreationTime(Instant.ofEpochMilli(rs.getLong("creation_time")));
+            session.setLastAccessedTime(Instant.ofEpochMilli(rs.getLong("last_access_time")));
+            session.setMaxInactiveInterval(Duration.ofSeconds(rs.getInt("max_inactive_seconds")));
+            codec.decode(rs.getBytes("attributes")).forEach(session::setAttribute);
+            return session;
+        }, id);
+        if (found.isEmpty()) {
+            return null;
+        }
+
+        MapSession session = found.get(0);
+        Long pending = pendingAccessTimes.get(id);
+        if (pending != null && pending > session.getLastAccessedTime().toEpochMilli()) {
+            session.setLastAccessedTime(Instant.ofEpochMilli(pending));
+        }
+        if (isExpired(session)) {
+            deleteById(id);
+            return null;
+        }
+        return new SharedSession(session, false);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        pendingAccessTimes.remove(id);
+        jdbcTemplate.update(DELETE_SESSION, id);
+    }
+
+    /**
+     * Writes all coalesced last-access times in JDBC batches.
+     * An entry is only dropped if it wasn't bumped again while we were flushing it.
+     */
+    @Scheduled(fixedDelayString = "${session.jdbc.flush-interval-ms}")
+    public void flushLastAccessTimes() {
+        List<Object[]> batch = new ArrayList<>(Math.min(pendingAccessTimes.size(), flushBatchSize));
+        for (Map.Entry<String, Long> entry : pendingAccessTimes.entrySet()) {
+            String id = entry.getKey();
+            Long lastAccess = entry.getValue();
+            if (pendingAccessTimes.remove(id, lastAccess)) {
+                batch.add(new Object[]{lastAccess, lastAccess, id, lastAccess});
+            }
+            if (batch.size() == flushBatchSize) {
+                jdbcTemplate.batchUpdate(UPDATE_LAST_ACCESS, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_ACCESS, batch);
+        }
+    }
+
+    /**
+     * Removes every expired session in a single statement rather than one delete per session.
+     */
+    @Scheduled(fixedDelayString = "${session.jdbc.cleanup-interval-ms}")
+    public void cleanUpExpiredSessions() {
+        jdbcTemplate.update(DELETE_EXPIRED_SESSIONS, System.currentTimeMillis() - flushIntervalMillis);
+    }
+
+    /**
+     * Last-access times not written yet; published as the {@code session.jdbc.pending} gauge (see SessionConfig).
+     */
+    public int getPendingAccessCount() {
+        return pendingAccessTimes.size();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushLastAccessTimes();
+    }
+
+    private boolean isExpired(MapSession session) {
+        if (session.getMaxInactiveInterval().isNegative()) {
+            return false;
+        }
+        long idleDeadline = session.getLastAccessedTime().toEpochMilli()
+                + session.getMaxInactiveInterval().toMillis() + flushIntervalMillis;
+        return System.currentTimeMillis() > idleDeadline;
+    }
+
+    private static int maxInactiveSeconds(SharedSession session) {
+        return (int) session.getMaxInactiveInterval().getSeconds();
+    }
+
+    private static long expiryTime(SharedSession session) {
+        if (session.getMaxInactiveInterval().isNegative()) {
+            return Long.MAX_VALUE; // Never expires, never picked up by the cleanup
+        }
+        return session.getLastAccessedTime().toEpochMilli() + session.getMaxInactiveInterval().toMillis();
+    }
+
+    private static Map<String, Object> attributesOf(SharedSession session) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (String name : session.getAttributeNames()) {
+            attributes.put(name, session.getAttribute(name));
+        }
+        return attributes;
+    }
+}
@@ -0,0 +1,11 @@
+-- Shared HTTP sessions, see WriteBehindJdbcSessionRepository
+CREATE TABLE IF NOT EXISTS http_sessions (
+    session_id           VARCHAR(36) PRIMARY KEY,
+    creation_time        BIGINT      NOT NULL,
+    last_access_time     BIGINT      NOT NULL,
+    max_inactive_seconds INT         NOT NULL,
+    expiry_time          BIGINT      NOT NULL,
+    attributes           BYTEA
+);
+
+CREATE INDEX IF NOT EXISTS http_sessions_expiry_idx ON http_sessions (expiry_time);
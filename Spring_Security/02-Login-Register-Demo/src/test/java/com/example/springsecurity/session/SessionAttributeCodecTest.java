@@ -0,0 +1,46 @@
+package com.example.springsecurity.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionAttributeCodecTest {
+
+    private final SessionAttributeCodec codec = new SessionAttributeCodec(getClass().getClassLoader());
+
+    @Test
+    void storesSmallSessionsWithoutDeflating() {
+        Map<String, Object> attributes = Map.of("user", "alice");
+
+        byte[] encoded = codec.encode(attributes);
+
+        assertEquals(0, encoded[0]); // PLAIN
+        assertEquals(attributes, codec.decode(encoded));
+    }
+
+    @Test
+    void deflatesLargeSessionsWhenThatMakesThemSmaller() {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("roles", List.of("ROLE_USER", "ROLE_ADMIN"));
+        attributes.put("history", "/welcome ".repeat(200));
+
+        byte[] encoded = codec.encode(attributes);
+
+        assertEquals(1, encoded[0]); // DEFLATED
+        assertTrue(encoded.length < 200, "deflated to " + encoded.length + " bytes");
+        Map<String, Object> decoded = codec.decode(encoded);
+        assertEquals(attributes, decoded);
+        assertEquals(List.of("roles", "history"), List.copyOf(decoded.keySet()));
+    }
+
+    @Test
+    void decodesAMissingBlobAsNoAttributes() {
+        assertTrue(codec.decode(null).isEmpty());
+        assertTrue(codec.decode(new byte[0]).isEmpty());
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.springsecurity.session;
+
+import com.example.springsecurity.SpringSecurityLoginRegisterApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application instances sharing one embedded database, as they would share PostgreSQL behind a load balancer.
+ */
+class SharedSessionAcrossNodesTests {
+
+    private static final String[] NODE_ARGS = {
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:shared-sessions;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.show-sql=false",
+            // Flushes are triggered by the test itself
+            "--session.jdbc.flush-interval-ms=3600000"
+    };
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = new SpringApplicationBuilder(SpringSecurityLoginRegisterApplication.class).run(NODE_ARGS);
+        nodeB = new SpringApplicationBuilder(SpringSecurityLoginRegisterApplication.class).run(NODE_ARGS);
+    }
+
+    // The nodes outlive each test; start every test without access times left pending by an earlier one
+    @BeforeEach
+    void flushPendingAccessTimes() {
+        nodeA.getBean(WriteBehindJdbcSessionRepository.class).flushLastAccessTimes();
+        nodeB.getBean(WriteBehindJdbcSessionRepository.class).flushLastAccessTimes();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void loginOnOneNodeIsVisibleOnTheOther() throws Exception {
+        post(nodeA, "/register", "{\"username\":\"alice\",\"email\":\"alice@example.com\",\"password\":\"secret\"}");
+        HttpResponse<String> login = post(nodeA, "/login", "{\"email\":\"alice@example.com\",\"password\":\"secret\"}");
+        assertEquals(200, login.statusCode());
+        String cookie = login.headers().firstValue("Set-Cookie").map(c -> c.split(";", 2)[0]).orElse(null);
+        assertNotNull(cookie);
+
+        assertEquals(403, get(nodeB, "/welcome", null).statusCode());
+        assertEquals(200, get(nodeB, "/welcome", cookie).statusCode());
+    }
+
+    @Test
+    void lastAccessIsWrittenBehindInBatches() throws Exception {
+        post(nodeA, "/register", "{\"username\":\"bob\",\"email\":\"bob@example.com\",\"password\":\"secret\"}");
+        HttpResponse<String> login = post(nodeA, "/login", "{\"email\":\"bob@example.com\",\"password\":\"secret\"}");
+        String cookie = login.headers().firstValue("Set-Cookie").map(c -> c.split(";", 2)[0]).orElseThrow();
+
+        JdbcTemplate jdbcTemplate = nodeB.getBean(JdbcTemplate.class);
+        WriteBehindJdbcSessionRepository repositoryB = nodeB.getBean(WriteBehindJdbcSessionRepository.class);
+        long before = jdbcTemplate.queryForObject("SELECT MAX(last_access_time) FROM http_sessions", Long.class);
+
+        Thread.sleep(5);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, get(nodeB, "/welcome", cookie).statusCode());
+        }
+        // Ten authenticated reads, no writes yet: one coalesced pending entry
+        assertEquals(before, jdbcTemplate.queryForObject("SELECT MAX(last_access_time) FROM http_sessions", Long.class));
+        assertEquals(1, repositoryB.getPendingAccessCount());
+        assertEquals(1.0, nodeB.getBean(MeterRegistry.class).get("session.jdbc.pending").gauge().value());
+
+        repositoryB.flushLastAccessTimes();
+        assertEquals(0, repositoryB.getPendingAccessCount());
+        assertTrue(jdbcTemplate.queryForObject("SELECT MAX(last_access_time) FROM http_sessions", Long.class) > before);
+    }
+
+    private HttpResponse<String> post(ConfigurableApplicationContext node, String path, String json) throws Exception {
+        return http.send(HttpRequest.newBuilder(uri(node, path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(ConfigurableApplicationContext node, String path, String cookie) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(node, path)).GET();
+        if (cookie != null) {
+            request.header("Cookie", cookie);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(ConfigurableApplicationContext node, String path) {
+        int port = ((WebServerApplicationContext) node).getWebServer().getPort();
+        return URI.create("http://localhost:" + port + path);
+    }
+}
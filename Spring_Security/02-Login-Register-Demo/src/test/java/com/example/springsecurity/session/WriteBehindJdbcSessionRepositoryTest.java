@@ -0,0 +1,94 @@
+package com.example.springsecurity.session;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WriteBehindJdbcSessionRepositoryTest {
+
+    private static final long FLUSH_INTERVAL_MILLIS = 10_000;
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private WriteBehindJdbcSessionRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        repository = new WriteBehindJdbcSessionRepository(jdbcTemplate, getClass().getClassLoader(),
+                Duration.ofMinutes(30), FLUSH_INTERVAL_MILLIS, 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void cleanUpDeletesOnlySessionsExpiredForLongerThanAFlushInterval() {
+        long now = System.currentTimeMillis();
+        saveSession(now - Duration.ofMinutes(31).toMillis() - FLUSH_INTERVAL_MILLIS - 1_000);
+        // Past its timeout, but another node may still hold an unflushed access to it
+        String withinGrace = saveSession(now - Duration.ofMinutes(30).toMillis() - FLUSH_INTERVAL_MILLIS / 2);
+        String active = saveSession(now);
+
+        repository.cleanUpExpiredSessions();
+
+        assertEquals(Stream.of(active, withinGrace).sorted().toList(),
+                jdbcTemplate.queryForList("SELECT session_id FROM http_sessions ORDER BY session_id", String.class));
+    }
+
+    @Test
+    void movesTheRowAndPendingAccessToARotatedId() {
+        SharedSession created = repository.createSession();
+        created.setAttribute("user", "alice");
+        repository.save(created);
+        String originalId = created.getId();
+
+        SharedSession loaded = repository.findById(originalId);
+        loaded.setLastAccessedTime(Instant.now().plusSeconds(5));
+        repository.save(loaded);
+        assertEquals(1, repository.getPendingAccessCount());
+
+        // What session fixation protection does on login
+        SharedSession rotating = repository.findById(originalId);
+        String rotatedId = rotating.changeSessionId();
+        repository.save(rotating);
+
+        assertNull(repository.findById(originalId));
+        SharedSession rotated = repository.findById(rotatedId);
+        assertNotNull(rotated);
+        assertEquals("alice", rotated.getAttribute("user"));
+        assertEquals(1, repository.getPendingAccessCount());
+
+        repository.flushLastAccessTimes();
+        assertEquals(loaded.getLastAccessedTime().toEpochMilli(), jdbcTemplate.queryForObject(
+                "SELECT last_access_time FROM http_sessions WHERE session_id = ?", Long.class, rotatedId));
+    }
+
+    private String saveSession(long lastAccessMillis) {
+        SharedSession session = repository.createSession();
+        session.setLastAccessedTime(Instant.ofEpochMilli(lastAccessMillis));
+        repository.save(session);
+        return session.getId();
+    }
+}
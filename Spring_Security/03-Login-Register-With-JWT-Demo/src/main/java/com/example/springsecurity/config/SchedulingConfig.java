@@ -0,0 +1,12 @@
+package com.example.springsecurity.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the periodic write-behind flushes (see UserActivityService).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,8 +2,10 @@ package com.example.springsecurity.config;
 
 import com.example.springsecurity.filter.JwtAuthenticationFilter;
 import com.example.springsecurity.service.UserDetailsServiceImpl;
+import com.example.springsecurity.util.AdmissionLimitedPasswordEncoder;
 import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -29,9 +31,21 @@ public class WebSecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // 0 means one per core
+    @Value("${security.password-hashing.max-concurrent:0}")
+    private int maxConcurrentHashes;
+
+    @Value("${security.password-hashing.acquire-timeout-ms:2000}")
+    private long hashAcquireTimeoutMillis;
+
+    /**
+     * BCrypt, limited to a fixed number of hashes at a time so logins cannot monopolise the CPU
+     * (or, with virtual threads, every carrier thread).
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int maxConcurrent = maxConcurrentHashes > 0 ? maxConcurrentHashes : Runtime.getRuntime().availableProcessors();
+        return new AdmissionLimitedPasswordEncoder(new BCryptPasswordEncoder(), maxConcurrent, hashAcquireTimeoutMillis);
     }
 
     @Bean
@@ -56,6 +70,8 @@ public class WebSecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(request -> request
                         .requestMatchers("/register", "/login").permitAll()
+                        .requestMatchers("/tokens/introspect").hasRole("TOKEN_INTROSPECTOR")
+                        .requestMatchers("/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
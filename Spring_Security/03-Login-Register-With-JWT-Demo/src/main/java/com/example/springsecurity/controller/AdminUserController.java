@@ -0,0 +1,61 @@
+package com.example.springsecurity.controller;
+
+import com.example.springsecurity.dto.UserSummary;
+import com.example.springsecurity.service.AdminUserService;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin-only user listing (restricted to ROLE_ADMIN in WebSecurityConfig).
+ */
+@RestController
+@RequestMapping("/admin/users")
+@AllArgsConstructor(onConstructor_ =  @Autowired)
+public class AdminUserController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final AdminUserService adminUserService;
+
+    /**
+     * One page of users with id greater than {@code after}. Pass the returned {@code nextAfter}
+     * to get the following page; it is null on the last page.
+     */
+    @GetMapping
+    public ResponseEntity<?> listUsers(@RequestParam(defaultValue = "0") long after,
+                                       @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>("limit must be between 1 and " + MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST);
+        }
+        List<UserSummary> users = adminUserService.listUsers(after, limit);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("users", users);
+        response.put("nextAfter", users.size() < limit ? null : users.get(users.size() - 1).getId());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = adminUserService::exportUsers;
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.springsecurity.controller;
+
+import com.example.springsecurity.dto.TokenIntrospectionRequest;
+import com.example.springsecurity.service.TokenIntrospectionService;
+import com.example.springsecurity.util.TokenBucketRateLimiter;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+@RestController
+@AllArgsConstructor(onConstructor_ =  @Autowired)
+public class TokenIntrospectionController {
+
+    private final TokenIntrospectionService tokenIntrospectionService;
+
+    private final TokenBucketRateLimiter rateLimiter;
+
+    /**
+     * Batch introspection for API gateways: one round trip verifies many bearer tokens.
+     * Only accounts an operator granted ROLE_TOKEN_INTROSPECTOR may call it; each is charged one rate-limit
+     * permit per token.
+     */
+    @PostMapping("/tokens/introspect")
+    public ResponseEntity<StreamingResponseBody> introspect(@RequestBody TokenIntrospectionRequest request, Authentication authentication) {
+        List<String> tokens = request.getTokens();
+        if (tokens == null || tokens.isEmpty()) {
+            return message(HttpStatus.BAD_REQUEST, "No tokens to introspect!");
+        }
+        if (tokens.size() > tokenIntrospectionService.getMaxBatchSize()) {
+            return message(HttpStatus.PAYLOAD_TOO_LARGE, "Batch too large! At most "
+                    + tokenIntrospectionService.getMaxBatchSize() + " tokens per request");
+        }
+        if (!rateLimiter.tryAcquire(authentication.getName(), tokens.size())) {
+            return message(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded!");
+        }
+
+        StreamingResponseBody body = out -> tokenIntrospectionService.introspectAll(tokens, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // The body type must stay StreamingResponseBody: for any other declared type (even ResponseEntity<?>) Spring
+    // serializes the lambda with Jackson instead of streaming it
+    private static ResponseEntity<StreamingResponseBody> message(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -2,16 +2,22 @@ package com.example.springsecurity.controller;
 
 import com.example.springsecurity.entity.User;
 import com.example.springsecurity.repository.UserRepo;
+import com.example.springsecurity.service.UserActivityService;
+import com.example.springsecurity.util.AdmissionLimitedPasswordEncoder.PasswordHashingCapacityException;
 import com.example.springsecurity.util.JwtUtil;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -33,6 +39,8 @@ public class UserController {
 
     private final AuthenticationManager authenticationManager;
 
+    private final UserActivityService userActivityService;
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody User user) {
         try {
@@ -50,6 +58,9 @@ public class UserController {
                 // Generate JWT token
                 String jwtToken = jwtUtil.generateToken(userDetails);
 
+                // Buffered and written in batches, not part of this request
+                userActivityService.recordLoginSuccess(userDetails.getUsername());
+
                 // Return token in a clean JSON response
                 Map<String, String> response = new HashMap<>();
                 response.put("token", jwtToken);
@@ -59,7 +70,12 @@ public class UserController {
             } else {
                 return new ResponseEntity<>("Invalid user credentials!", HttpStatus.UNAUTHORIZED);
             }
+        } catch (PasswordHashingCapacityException e) {
+            throw e; // Not a credentials problem; see handleOverload
         } catch (Exception e) {
+            if (e instanceof BadCredentialsException) {
+                userActivityService.recordLoginFailure(user.getEmail());
+            }
             return new ResponseEntity<>("Authentication failed: " + e.getMessage(),
                                        HttpStatus.UNAUTHORIZED);
         }
@@ -67,8 +83,20 @@ public class UserController {
 
     @PostMapping("/register")
     public ResponseEntity<String> register(@RequestBody User user) {
+        if (user.getEmail() == null || user.getEmail().isBlank()) {
+            return new ResponseEntity<>("Email is required!", HttpStatus.BAD_REQUEST);
+        }
+        if (userRepo.findByEmail(user.getEmail()) != null) {
+            return new ResponseEntity<>("Email is already registered!", HttpStatus.CONFLICT);
+        }
         user.setPassword(bCryptPasswordEncoder.encode(user.getPassword()));
-        User u = userRepo.save(user);
+        User u;
+        try {
+            u = userRepo.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // users_email_normalized_key: registered concurrently since the check above, in any letter case
+            return new ResponseEntity<>("Email is already registered!", HttpStatus.CONFLICT);
+        }
         if(u.getId() != null){
             return new ResponseEntity<>("User registered successfully! with user id "+ u.getId(), HttpStatus.CREATED);
         }else {
@@ -80,4 +108,12 @@ public class UserController {
     public String welcome() {
         return "Welcome to the JWT Authentication Demo!";
     }
+
+    // Too many password hashes already in progress (see AdmissionLimitedPasswordEncoder)
+    @ExceptionHandler(PasswordHashingCapacityException.class)
+    public ResponseEntity<String> handleOverload(PasswordHashingCapacityException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
 }
@@ -0,0 +1,17 @@
+package com.example.springsecurity.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class TokenIntrospectionRequest {
+
+    // Raw compact JWS strings, without the "Bearer " prefix
+    private List<String> tokens = new ArrayList<>();
+}
@@ -0,0 +1,34 @@
+package com.example.springsecurity.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL) // Inactive tokens only report "active": false
+public class TokenIntrospectionResult {
+
+    private static final TokenIntrospectionResult INACTIVE =
+            new TokenIntrospectionResult(false, null, null, null);
+
+    private final boolean active;
+    private final String sub;
+    private final Long exp; // Seconds since epoch, as in the token itself
+    private final List<String> authorities;
+
+    public static TokenIntrospectionResult active(String sub, Long exp, List<String> authorities) {
+        return new TokenIntrospectionResult(true, sub, exp,
+                authorities == null ? Collections.emptyList() : authorities);
+    }
+
+    /**
+     * Never says why a token was rejected, so the endpoint can't be used as a signature oracle.
+     */
+    public static TokenIntrospectionResult inactive() {
+        return INACTIVE;
+    }
+}
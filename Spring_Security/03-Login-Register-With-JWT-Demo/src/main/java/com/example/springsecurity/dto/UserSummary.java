@@ -0,0 +1,20 @@
+package com.example.springsecurity.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Non-sensitive view of a user for the admin listing and export; never carries the password hash.
+ * Built directly by JPQL constructor expressions, so full User entities are never loaded.
+ */
+@Getter
+@AllArgsConstructor
+public class UserSummary {
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final Instant lastLoginAt;
+}
@@ -1,17 +1,29 @@
 package com.example.springsecurity.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.PartitionKey;
+
+import java.time.Instant;
+import java.util.Locale;
 
 @Entity
-@Table(name = "users") // Specify a different table name to avoid conflict with PostgreSQL reserved keyword
+// Specify a different table name to avoid conflict with PostgreSQL reserved keyword.
+// Lookups ignore case, so the normalized email (not the raw one) must be unique.
+@Table(name = "users", uniqueConstraints = @UniqueConstraint(name = "users_email_normalized_key", columnNames = "email_normalized"))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -20,8 +32,42 @@ public class User {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY) // A client-supplied id would turn /register into an update
     private Long id;
     private String username;
     private String email;
     private String password;
+
+    // Hash partition key of the users table (see db/users-partitioned-schema.sql).
+    // @PartitionKey makes Hibernate add it to UPDATE/DELETE, so those prune to one partition too.
+    // Mapped nullable so ddl-auto=update can add it to a populated table; db/backfill-users-email-normalized.sql
+    // fills in existing rows and then makes it NOT NULL.
+    @JsonIgnore
+    @PartitionKey
+    @Column(name = "email_normalized")
+    private String emailNormalized;
+
+    // Comma-separated role names (e.g. "ADMIN,TOKEN_INTROSPECTOR"), granted as ROLE_<name>. Set only by operators in the database;
+    // never bound from or written to request/response bodies.
+    @JsonIgnore
+    private String roles;
+
+    // Login activity, written in batches by UserActivityService (never bound from request bodies)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant lastLoginAt;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer failedLoginAttempts;
+
+    @PrePersist
+    @PreUpdate
+    void normalizeEmail() {
+        this.emailNormalized = normalizeEmail(email);
+    }
+
+    /**
+     * The single normalization used for storage, lookups and hashing to a partition.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
 }
@@ -1,10 +1,46 @@
 package com.example.springsecurity.repository;
 
+import com.example.springsecurity.dto.UserSummary;
 import com.example.springsecurity.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 public interface UserRepo extends JpaRepository<User, Long> {
 
-    public User findByEmail(String email);
+    /**
+     * Looks a user up by email. Always goes through the normalized partition key, so on the
+     * hash-partitioned users table PostgreSQL only ever touches the one partition holding it.
+     */
+    public default User findByEmail(String email) {
+        return findByEmailNormalized(User.normalizeEmail(email));
+    }
+
+    public User findByEmailNormalized(String emailNormalized);
+
+    /**
+     * Keyset (seek) page: the next {@code limit} users after {@code afterId}, in id order.
+     * Seeks straight to {@code afterId} through the id index, so page 10,000 costs the same as page 1,
+     * unlike OFFSET paging, which reads and discards every row before the page.
+     */
+    @Query("select new com.example.springsecurity.dto.UserSummary(u.id, u.username, u.email, u.lastLoginAt) "
+            + "from User u where u.id > :afterId order by u.id")
+    public List<UserSummary> findSummariesAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Every user in id order, read through a database cursor {@code fetch_size} rows at a time.
+     * Must be consumed inside a read-only transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.springsecurity.dto.UserSummary(u.id, u.username, u.email, u.lastLoginAt) "
+            + "from User u order by u.id")
+    public Stream<UserSummary> streamAllSummaries();
 }
@@ -0,0 +1,69 @@
+package com.example.springsecurity.service;
+
+import com.example.springsecurity.dto.UserSummary;
+import com.example.springsecurity.repository.UserRepo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+@AllArgsConstructor(onConstructor_ = @Autowired)
+public class AdminUserService {
+
+    // Rows written between flushes of the export stream
+    private static final int EXPORT_FLUSH_EVERY = 500;
+
+    private final UserRepo userRepo;
+
+    private final ObjectMapper objectMapper;
+
+    private final PlatformTransactionManager transactionManager;
+
+    public List<UserSummary> listUsers(long afterId, int limit) {
+        return userRepo.findSummariesAfter(afterId, Limit.of(limit));
+    }
+
+    /**
+     * Writes every user as one JSON object per line (NDJSON).
+     * Rows come from a fetch-size-bound cursor and go straight to {@code out}, so memory stays
+     * constant however many users there are. PostgreSQL only uses a cursor inside a transaction,
+     * hence the explicit read-only one around the stream.
+     */
+    public void exportUsers(OutputStream out) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<UserSummary> users = userRepo.streamAllSummaries();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(new SerializedString("\n"));
+
+                int written = 0;
+                for (Iterator<UserSummary> it = users.iterator(); it.hasNext(); ) {
+                    generator.writeObject(it.next());
+                    if (++written % EXPORT_FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+                if (written > 0) {
+                    generator.writeRaw('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("User export failed", e);
+            }
+        });
+    }
+}
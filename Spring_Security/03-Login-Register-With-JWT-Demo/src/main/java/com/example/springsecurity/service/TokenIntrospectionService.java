@@ -0,0 +1,115 @@
+package com.example.springsecurity.service;
+
+import com.example.springsecurity.dto.TokenIntrospectionResult;
+import com.example.springsecurity.util.JwtUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Service
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class TokenIntrospectionService {
+
+    private final JwtUtil jwtUtil;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Pool used to verify introspection batches in parallel.
+     * HMAC verification is pure CPU work, so one thread per core is all that helps;
+     * a dedicated pool keeps it off the common ForkJoinPool and the Tomcat request threads.
+     * Owned here rather than declared as a bean: any Executor bean makes Spring Boot back off from creating
+     * applicationTaskExecutor, which Spring MVC runs StreamingResponseBody (this service's and the user export's) on.
+     */
+    private final ExecutorService introspectionExecutor = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            Thread.ofPlatform().name("introspect-", 0).daemon(true).factory());
+
+    @Getter
+    @Value("${introspection.max-batch-size}")
+    private int maxBatchSize;
+
+    // Tokens verified per task; large enough to amortize the hand-off, small enough to start streaming early
+    @Value("${introspection.chunk-size}")
+    private int chunkSize;
+
+    /**
+     * Verifies a single token with the same rules as {@link JwtUtil#validateToken}:
+     * signature, expiry, issuer and audience. Any failure is reported as inactive.
+     */
+    public TokenIntrospectionResult introspect(String token) {
+        try {
+            return jwtUtil.extractClaim(token, claims -> TokenIntrospectionResult.active(
+                    claims.getSubject(),
+                    claims.getExpiration() == null ? null : claims.getExpiration().getTime() / 1000,
+                    extractAuthorities(claims)));
+        } catch (JwtException | IllegalArgumentException e) {
+            return TokenIntrospectionResult.inactive();
+        }
+    }
+
+    /**
+     * Verifies the batch in parallel and streams {@code {"results":[...]}} to {@code out}.
+     * Results keep the order of the request; each chunk is written and flushed as soon as it
+     * and every chunk before it are done, so the caller starts reading before the batch finishes.
+     */
+    public void introspectAll(List<String> tokens, OutputStream out) throws IOException {
+        List<Future<List<TokenIntrospectionResult>>> chunks = new ArrayList<>();
+        for (int from = 0; from < tokens.size(); from += chunkSize) {
+            List<String> chunk = tokens.subList(from, Math.min(from + chunkSize, tokens.size()));
+            chunks.add(introspectionExecutor.submit(() -> chunk.stream().map(this::introspect).toList()));
+        }
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("results");
+            for (Future<List<TokenIntrospectionResult>> chunk : chunks) {
+                for (TokenIntrospectionResult result : chunk.get()) {
+                    generator.writeObject(result);
+                }
+                generator.flush();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Token introspection interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Token introspection failed", e.getCause());
+        } finally {
+            // No-op for finished chunks; stops wasted work if the client went away mid-stream
+            chunks.forEach(chunk -> chunk.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        introspectionExecutor.shutdown();
+    }
+
+    private List<String> extractAuthorities(Claims claims) {
+        Object authorities = claims.get(JwtUtil.AUTHORITIES_CLAIM);
+        if (authorities instanceof Collection<?> values) {
+            return values.stream().map(String::valueOf).toList();
+        }
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.springsecurity.service;
+
+import com.example.springsecurity.entity.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records login outcomes (last successful login, failed attempts since) on the {@code users} row
+ * without putting an UPDATE inside every /login request.
+ * <p>
+ * Outcomes are merged per email in memory and written as batched updates, either every
+ * {@code user.activity.flush-interval-ms} or as soon as {@code user.activity.flush-threshold}
+ * users are pending, whichever comes first. Whatever is still pending is drained on shutdown.
+ * <p>
+ * Failed logins are recorded for whatever email was submitted, so once {@code user.activity.max-pending}
+ * users are pending, failures are only added to users already in the map; anything else is dropped rather
+ * than letting guessed emails grow it without bound.
+ */
+@Service
+public class UserActivityService {
+
+    // Keyed on the partition key, so each update prunes to a single partition of users.
+    // A success in the window resets the counter to the failures that came after it
+    private static final String UPDATE_AFTER_SUCCESS =
+            "UPDATE users SET last_login_at = ?, failed_login_attempts = ? WHERE email_normalized = ?";
+
+    private static final String ADD_FAILURES =
+            "UPDATE users SET failed_login_attempts = COALESCE(failed_login_attempts, 0) + ? WHERE email_normalized = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TaskScheduler taskScheduler;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${user.activity.flush-threshold}")
+    private int flushThreshold;
+
+    @Value("${user.activity.batch-size}")
+    private int batchSize;
+
+    @Value("${user.activity.max-pending}")
+    private int maxPending;
+
+    private final ConcurrentMap<String, LoginActivity> pending = new ConcurrentHashMap<>();
+
+    // Scheduled, threshold-triggered and shutdown flushes never run at the same time
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // At most one threshold-triggered flush waiting to run; cleared when it starts
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    public UserActivityService(JdbcTemplate jdbcTemplate, TaskScheduler taskScheduler,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskScheduler = taskScheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("user.activity.pending", pending, ConcurrentMap::size)
+                .description("Users with login outcomes not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    public void recordLoginSuccess(String email) {
+        record(email, LoginActivity.success(Instant.now()));
+    }
+
+    public void recordLoginFailure(String email) {
+        if (email != null && pending.size() >= maxPending) {
+            pending.computeIfPresent(User.normalizeEmail(email), (key, earlier) -> earlier.then(LoginActivity.FAILURE));
+            return;
+        }
+        record(email, LoginActivity.FAILURE);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void record(String email, LoginActivity activity) {
+        if (email == null) {
+            return;
+        }
+        pending.merge(User.normalizeEmail(email), activity, LoginActivity::then);
+        if (pending.size() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            // Never on the request thread: /login must not wait for the batch
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user.activity.flush-interval-ms}")
+    public void flush() {
+        flushRequested.set(false);
+        if (!flushLock.tryLock()) {
+            return; // Another flush is already draining the map
+        }
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void drainOnShutdown() {
+        flushLock.lock();
+        try {
+            drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void drain() {
+        List<String> emails = new ArrayList<>(batchSize);
+        List<LoginActivity> activities = new ArrayList<>(batchSize);
+        for (String email : pending.keySet()) {
+            LoginActivity activity = pending.remove(email);
+            if (activity == null) {
+                continue;
+            }
+            emails.add(email);
+            activities.add(activity);
+            if (emails.size() == batchSize) {
+                write(emails, activities);
+                emails.clear();
+                activities.clear();
+            }
+        }
+        if (!emails.isEmpty()) {
+            write(emails, activities);
+        }
+    }
+
+    private void write(List<String> emails, List<LoginActivity> activities) {
+        List<Object[]> successes = new ArrayList<>();
+        List<Object[]> failures = new ArrayList<>();
+        for (int i = 0; i < emails.size(); i++) {
+            LoginActivity activity = activities.get(i);
+            if (activity.lastSuccess() != null) {
+                successes.add(new Object[]{Timestamp.from(activity.lastSuccess()), activity.failures(), emails.get(i)});
+            } else {
+                failures.add(new Object[]{activity.failures(), emails.get(i)});
+            }
+        }
+        try {
+            // Both or neither: the batch is retried whole, and ADD_FAILURES increments must not be applied twice
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!successes.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_AFTER_SUCCESS, successes);
+                }
+                if (!failures.isEmpty()) {
+                    jdbcTemplate.batchUpdate(ADD_FAILURES, failures);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Put the batch back in front of anything recorded meanwhile; the next flush retries it
+            for (int i = 0; i < emails.size(); i++) {
+                LoginActivity unwritten = activities.get(i);
+                pending.merge(emails.get(i), unwritten, (recordedSince, earlier) -> earlier.then(recordedSince));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Login outcomes of one user since the last flush.
+     *
+     * @param lastSuccess time of the latest successful login, or null if there was none
+     * @param failures    failed attempts after {@code lastSuccess} (or in total, if there was no success)
+     */
+    private record LoginActivity(Instant lastSuccess, int failures) {
+
+        static final LoginActivity FAILURE = new LoginActivity(null, 1);
+
+        static LoginActivity success(Instant at) {
+            return new LoginActivity(at, 0);
+        }
+
+        /**
+         * Combines this (earlier) activity with a later one.
+         */
+        LoginActivity then(LoginActivity later) {
+            if (later.lastSuccess != null) {
+                return later;
+            }
+            return new LoginActivity(lastSuccess, failures + later.failures);
+        }
+    }
+}
@@ -4,12 +4,16 @@ import com.example.springsecurity.entity.User;
 import com.example.springsecurity.repository.UserRepo;
 import lombok.AllArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 @Service
 @AllArgsConstructor(onConstructor_ = { @Autowired })
@@ -23,6 +27,21 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         if (user == null) {
             throw new UsernameNotFoundException("User not found with email: " + email);
         }
-        return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPassword(), Collections.emptyList());
+        return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPassword(), authorities(user));
+    }
+
+    /**
+     * ROLE_ authorities for the roles operators assigned in the users.roles column (e.g. "ADMIN").
+     */
+    private static List<GrantedAuthority> authorities(User user) {
+        String roles = user.getRoles();
+        if (roles == null || roles.isBlank()) {
+            return Collections.emptyList();
+        }
+        return AuthorityUtils.createAuthorityList(Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .map(role -> "ROLE_" + role)
+                .toList());
     }
 }
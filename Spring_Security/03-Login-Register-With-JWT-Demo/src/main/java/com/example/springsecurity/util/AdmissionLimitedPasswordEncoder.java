@@ -0,0 +1,82 @@
+package com.example.springsecurity.util;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps how many password hashes are computed at once.
+ * <p>
+ * BCrypt is deliberately slow, CPU-bound work. With virtual threads nothing bounds how many requests reach it,
+ * so a login burst would keep every carrier thread busy hashing and starve token verification and everything
+ * else that shares them. Callers past the limit wait on a {@link Semaphore}, which parks a virtual thread without
+ * holding its carrier. If no permit frees up within the timeout they fail with
+ * {@link PasswordHashingCapacityException}, instead of queueing without limit.
+ */
+public class AdmissionLimitedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final Semaphore permits;
+
+    private final long acquireTimeoutMillis;
+
+    public AdmissionLimitedPasswordEncoder(PasswordEncoder delegate, int maxConcurrent, long acquireTimeoutMillis) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        acquire();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        acquire();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void acquire() {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new PasswordHashingCapacityException("Too many concurrent password checks; try again shortly");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingCapacityException("Interrupted while waiting to check the password");
+        }
+    }
+
+    /**
+     * Thrown when a password could not be hashed within the admission timeout; the request should be retried later.
+     * An internal authentication failure, so ProviderManager reports it as is rather than trying other providers.
+     */
+    public static class PasswordHashingCapacityException extends InternalAuthenticationServiceException {
+
+        public PasswordHashingCapacityException(String message) {
+            super(message);
+        }
+    }
+}
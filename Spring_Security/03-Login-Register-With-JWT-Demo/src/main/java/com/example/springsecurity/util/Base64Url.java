@@ -0,0 +1,75 @@
+package com.example.springsecurity.util;
+
+import java.util.Arrays;
+
+/**
+ * Minimal unpadded base64url codec working directly on token characters,
+ * so the verifier never has to {@code substring} a token before decoding it.
+ */
+final class Base64Url {
+
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes();
+
+    private static final int[] VALUES = new int[128];
+
+    static {
+        Arrays.fill(VALUES, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            VALUES[ALPHABET[i]] = i;
+        }
+    }
+
+    private Base64Url() {
+    }
+
+    /**
+     * Decodes {@code source[from, to)}.
+     *
+     * @return the decoded bytes, or {@code null} if the range is not valid unpadded base64url
+     */
+    static byte[] decode(CharSequence source, int from, int to) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            return null;
+        }
+        byte[] out = new byte[length * 3 / 4];
+        int bits = 0;
+        int bitCount = 0;
+        int o = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? VALUES[c] : -1;
+            if (value < 0) {
+                return null;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[o++] = (byte) (bits >> bitCount);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Encodes a 32-byte HMAC-SHA256 into exactly 43 characters of {@code out}.
+     */
+    static void encodeMac(byte[] mac, byte[] out) {
+        int o = 0;
+        int i = 0;
+        for (; i + 3 <= mac.length; i += 3) {
+            int block = (mac[i] & 0xFF) << 16 | (mac[i + 1] & 0xFF) << 8 | (mac[i + 2] & 0xFF);
+            out[o++] = ALPHABET[block >>> 18 & 0x3F];
+            out[o++] = ALPHABET[block >>> 12 & 0x3F];
+            out[o++] = ALPHABET[block >>> 6 & 0x3F];
+            out[o++] = ALPHABET[block & 0x3F];
+        }
+        // 32 = 10 * 3 + 2: two trailing bytes become three characters
+        int block = (mac[i] & 0xFF) << 16 | (mac[i + 1] & 0xFF) << 8;
+        out[o++] = ALPHABET[block >>> 18 & 0x3F];
+        out[o++] = ALPHABET[block >>> 12 & 0x3F];
+        out[o] = ALPHABET[block >>> 6 & 0x3F];
+    }
+}
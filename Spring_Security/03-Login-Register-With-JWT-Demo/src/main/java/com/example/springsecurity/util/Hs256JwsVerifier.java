@@ -0,0 +1,194 @@
+package com.example.springsecurity.util;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.IncorrectClaimException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.MissingClaimException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Allocation-light verifier for the HS256 tokens this application issues itself.
+ * <p>
+ * It enforces the same rules as the jjwt parser built in {@link JwtUtil} (signature, exp, nbf,
+ * required issuer and audience) but:
+ * <ul>
+ *     <li>reuses one {@link Mac} and scratch buffers per platform thread (pooled for virtual threads)
+ *     instead of building a parser per call,</li>
+ *     <li>compares the signature in constant time directly against the characters of the token,</li>
+ *     <li>decodes the payload once into a byte array and scans it on demand; no claims map,
+ *     {@code Date} or {@code String} is created for a claim unless the caller reads it.</li>
+ * </ul>
+ * Tokens whose header is not exactly the one jjwt writes for HS256 ({@code {"alg":"HS256"}}) are
+ * not ours to judge: {@link #verify} returns {@code null} and the caller falls back to jjwt.
+ */
+public final class Hs256JwsVerifier {
+
+    // Base64url of {"alg":"HS256"}, as produced by Jwts.builder().signWith(key, HS256)
+    static final String HS256_HEADER = "eyJhbGciOiJIUzI1NiJ9";
+
+    private static final int MAC_LENGTH = 32;
+    private static final int SIGNATURE_LENGTH = 43; // Unpadded base64url of 32 bytes
+
+    private static final byte[] ISS = "iss".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] AUD = "aud".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EXP = "exp".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NBF = "nbf".getBytes(StandardCharsets.US_ASCII);
+
+    private final SecretKeySpec key;
+    private final byte[] issuer;
+    private final byte[] audience;
+    private final Clock clock;
+
+    private final ThreadLocal<Scratch> scratch;
+
+    // Virtual threads are created per request, so a ThreadLocal would initialise (and then drop) a Mac for every
+    // one of them; they borrow from this pool instead. Its lock is a ReentrantLock, so waiting on it never pins.
+    private final BlockingQueue<Scratch> virtualThreadScratch;
+
+    public Hs256JwsVerifier(byte[] secret, String issuer, String audience) {
+        this(secret, issuer, audience, Clock.systemUTC());
+    }
+
+    public Hs256JwsVerifier(byte[] secret, String issuer, String audience, Clock clock) {
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+        this.issuer = issuer.getBytes(StandardCharsets.UTF_8);
+        this.audience = audience.getBytes(StandardCharsets.UTF_8);
+        this.clock = clock;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(key));
+        this.virtualThreadScratch = new ArrayBlockingQueue<>(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Verifies the token and returns a lazy view over its claims.
+     *
+     * @return the verified claims, or {@code null} if the token does not use our HS256 header
+     * @throws io.jsonwebtoken.JwtException the same exception types jjwt throws for the same failures
+     */
+    public VerifiedJws verify(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT String argument cannot be null or empty.");
+        }
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0) {
+            throw new MalformedJwtException("JWT strings must contain exactly 2 period characters.");
+        }
+        if (firstDot != HS256_HEADER.length() || !token.startsWith(HS256_HEADER)) {
+            return null;
+        }
+
+        if (!signatureMatches(token, secondDot)) {
+            throw new SignatureException("JWT signature does not match locally computed signature.");
+        }
+
+        byte[] payload = Base64Url.decode(token, firstDot + 1, secondDot);
+        if (payload == null) {
+            throw new MalformedJwtException("Unable to decode JWT payload as Base64Url.");
+        }
+        VerifiedJws jws = new VerifiedJws(payload);
+        validateClaims(jws);
+        return jws;
+    }
+
+    private boolean signatureMatches(String token, int secondDot) {
+        if (!Thread.currentThread().isVirtual()) {
+            return scratch.get().signatureMatches(token, secondDot);
+        }
+        Scratch s = virtualThreadScratch.poll();
+        if (s == null) {
+            s = new Scratch(key);
+        }
+        try {
+            return s.signatureMatches(token, secondDot);
+        } finally {
+            virtualThreadScratch.offer(s); // Dropped if the pool is already full
+        }
+    }
+
+    private void validateClaims(VerifiedJws jws) {
+        long nowMillis = clock.millis();
+
+        double exp = jws.numberClaim(EXP);
+        if (!Double.isNaN(exp) && nowMillis > (long) (exp * 1000)) {
+            throw new ExpiredJwtException(null, null, "JWT expired at " + (long) exp + "s. Current time: " + nowMillis + "ms.");
+        }
+        double nbf = jws.numberClaim(NBF);
+        if (!Double.isNaN(nbf) && nowMillis < (long) (nbf * 1000)) {
+            throw new PrematureJwtException(null, null, "JWT must not be accepted before " + (long) nbf + "s.");
+        }
+
+        requireClaim(jws, ISS, issuer, "iss");
+        requireClaim(jws, AUD, audience, "aud");
+    }
+
+    private static void requireClaim(VerifiedJws jws, byte[] name, byte[] expected, String claimName) {
+        int match = jws.stringClaimEquals(name, expected);
+        if (match == VerifiedJws.MISSING) {
+            throw new MissingClaimException(null, null, "Expected " + claimName + " claim to be present, but was not.");
+        }
+        if (match == VerifiedJws.DIFFERENT) {
+            throw new IncorrectClaimException(null, null, "Expected " + claimName + " claim to have the required value.");
+        }
+    }
+
+    /**
+     * Per-thread (or pooled) state: one initialised {@link Mac} plus buffers sized for our tokens, grown on demand.
+     */
+    private static final class Scratch {
+
+        private final Mac mac;
+        private final byte[] macOut = new byte[MAC_LENGTH];
+        private final byte[] encoded = new byte[SIGNATURE_LENGTH];
+        private byte[] signingInput = new byte[512];
+
+        private Scratch(SecretKeySpec key) {
+            try {
+                this.mac = Mac.getInstance("HmacSHA256");
+                this.mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        }
+
+        private boolean signatureMatches(String token, int secondDot) {
+            if (token.length() - secondDot - 1 != SIGNATURE_LENGTH) {
+                return false;
+            }
+            if (signingInput.length < secondDot) {
+                signingInput = new byte[Math.max(secondDot, signingInput.length * 2)];
+            }
+            for (int i = 0; i < secondDot; i++) {
+                char c = token.charAt(i);
+                if (c > 0x7F) {
+                    return false; // Base64url is pure ASCII; no need to go through a charset encoder
+                }
+                signingInput[i] = (byte) c;
+            }
+
+            try {
+                mac.update(signingInput, 0, secondDot);
+                mac.doFinal(macOut, 0);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            Base64Url.encodeMac(macOut, encoded);
+
+            // Constant time: always walk the full signature, never exit on the first mismatch
+            int diff = 0;
+            int offset = secondDot + 1;
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                diff |= encoded[i] ^ token.charAt(offset + i);
+            }
+            return diff == 0;
+        }
+    }
+}
@@ -7,7 +7,9 @@ import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
@@ -22,6 +24,9 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
+    // Custom claim carrying the user's granted authorities, read back by token introspection
+    public static final String AUTHORITIES_CLAIM = "authorities";
+
     // IMPORTANT: This must be a Base64-encoded string of at least 32 bytes (256 bits) for HS256
     @Value("${jwt.secret.key}")
     private String SECRET_BASE64;
@@ -35,6 +40,18 @@ public class JwtUtil {
     @Value("${jwt.token.audience}")
     private String TOKEN_AUDIENCE;
 
+    // Opt-in: verify our own HS256 tokens with Hs256JwsVerifier instead of a fresh jjwt parser per call
+    @Value("${jwt.verifier.fast-path.enabled:false}")
+    private boolean FAST_PATH_ENABLED;
+
+    private Hs256JwsVerifier fastVerifier;
+
+    @PostConstruct
+    void initFastVerifier() {
+        if (FAST_PATH_ENABLED) {
+            fastVerifier = new Hs256JwsVerifier(Decoders.BASE64.decode(SECRET_BASE64), TOKEN_ISSUER, TOKEN_AUDIENCE);
+        }
+    }
 
     // --- 1. Key Management ---
     /**
@@ -51,6 +68,9 @@ public class JwtUtil {
         // 💡 Example of adding a custom claim: the user's first authority/role
 //        String role = userDetails.getAuthorities().stream().findFirst().get().getAuthority();
 //        claims.put("role", role);
+        claims.put(AUTHORITIES_CLAIM, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -101,13 +121,30 @@ public class JwtUtil {
 
     // Utility methods (mostly unchanged as they rely on the robust claim extractor)
     public String extractUsername(String token) throws JwtException {
+        VerifiedJws jws = verifyFast(token);
+        if (jws != null) {
+            return jws.getSubject();
+        }
         return extractClaim(token, Claims::getSubject);
     }
 
     public Date extractExpiration(String token) throws JwtException {
+        VerifiedJws jws = verifyFast(token);
+        if (jws != null) {
+            return jws.getExpiration();
+        }
         return extractClaim(token, Claims::getExpiration);
     }
 
+    /**
+     * Runs the fast verifier when enabled. Returns null when it is disabled or the token
+     * isn't one of our plain HS256 tokens, in which case the caller falls back to jjwt.
+     * Failures surface as the same JwtException subtypes jjwt would throw.
+     */
+    private VerifiedJws verifyFast(String token) throws JwtException {
+        return fastVerifier == null ? null : fastVerifier.verify(token);
+    }
+
 
     // --- 4. Token Validation ---
 
@@ -0,0 +1,87 @@
+package com.example.springsecurity.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-caller token bucket used to rate-limit the introspection endpoint.
+ * Callers are charged one permit per token they ask us to verify, not one per HTTP request,
+ * so a single huge batch costs the same as many small ones.
+ */
+@Component
+public class TokenBucketRateLimiter {
+
+    @Value("${introspection.rate-limit.tokens-per-second}")
+    private long permitsPerSecond;
+
+    @Value("${introspection.rate-limit.burst}")
+    private long burst;
+
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Takes {@code permits} from the caller's bucket if they are all available, otherwise takes nothing.
+     */
+    public boolean tryAcquire(String caller, int permits) {
+        boolean[] acquired = new boolean[1];
+        // Charged inside compute() so evictIdleBuckets() can't drop the bucket between lookup and charge
+        buckets.compute(caller, (key, bucket) -> {
+            Bucket b = bucket != null ? bucket : new Bucket(burst);
+            acquired[0] = b.tryAcquire(permits, permitsPerSecond, burst);
+            return b;
+        });
+        return acquired[0];
+    }
+
+    /**
+     * Drops buckets that have refilled to capacity. A full bucket behaves exactly like the fresh one
+     * {@link #tryAcquire} would create, so this only bounds memory; it never hands out extra permits.
+     */
+    @Scheduled(fixedDelayString = "${introspection.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (String caller : buckets.keySet()) {
+            buckets.computeIfPresent(caller, (key, bucket) -> bucket.isFull(now, permitsPerSecond, burst) ? null : bucket);
+        }
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private static final class Bucket {
+
+        private double available;
+        private long lastRefillNanos = System.nanoTime();
+
+        private Bucket(long initial) {
+            this.available = initial;
+        }
+
+        private synchronized boolean tryAcquire(int permits, long permitsPerSecond, long capacity) {
+            long now = System.nanoTime();
+            available = refilled(now, permitsPerSecond, capacity);
+            lastRefillNanos = now;
+
+            if (available < permits) {
+                return false;
+            }
+            available -= permits;
+            return true;
+        }
+
+        private synchronized boolean isFull(long now, long permitsPerSecond, long capacity) {
+            return refilled(now, permitsPerSecond, capacity) >= capacity;
+        }
+
+        private double refilled(long now, long permitsPerSecond, long capacity) {
+            // Seconds first: nanos * rate overflows a long after a long enough idle period
+            double refill = Math.max(0, now - lastRefillNanos) / 1e9 * permitsPerSecond;
+            return Math.min(capacity, available + refill);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.springsecurity.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Claims of a token accepted by {@link Hs256JwsVerifier}.
+ * <p>
+ * Holds only the decoded payload bytes. Each accessor scans the top-level JSON object for its
+ * key and decodes just that value, so reading {@code sub} never materialises the other claims.
+ * The payload was signed by us (with Jackson), so keys are plain ASCII without escapes.
+ */
+public final class VerifiedJws {
+
+    static final int MISSING = -1;
+    static final int DIFFERENT = 0;
+    static final int EQUAL = 1;
+
+    private static final byte[] SUB = "sub".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EXP = "exp".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] payload;
+
+    private String subject;
+
+    VerifiedJws(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public String getSubject() {
+        if (subject == null) {
+            int at = valueOffset(SUB);
+            subject = at < 0 || payload[at] != '"' ? null : readString(at);
+        }
+        return subject;
+    }
+
+    public Date getExpiration() {
+        double exp = numberClaim(EXP);
+        return Double.isNaN(exp) ? null : new Date((long) (exp * 1000));
+    }
+
+    /**
+     * @return the numeric claim in seconds, or NaN if it is absent or not a number
+     */
+    double numberClaim(byte[] name) {
+        int at = valueOffset(name);
+        if (at < 0) {
+            return Double.NaN;
+        }
+        int end = skipValue(at);
+        long whole = 0;
+        int i = at;
+        boolean negative = payload[i] == '-';
+        if (negative) {
+            i++;
+        }
+        if (i == end) {
+            return Double.NaN;
+        }
+        for (; i < end; i++) {
+            byte b = payload[i];
+            if (b < '0' || b > '9') {
+                // Fractions and exponents never come out of our own issuer; take the slow path
+                try {
+                    return Double.parseDouble(new String(payload, at, end - at, StandardCharsets.US_ASCII));
+                } catch (NumberFormatException e) {
+                    return Double.NaN;
+                }
+            }
+            whole = whole * 10 + (b - '0');
+        }
+        return negative ? -whole : whole;
+    }
+
+    /**
+     * Compares a string claim with {@code expected} (UTF-8) without creating a {@code String}.
+     *
+     * @return {@link #MISSING}, {@link #DIFFERENT} or {@link #EQUAL}
+     */
+    int stringClaimEquals(byte[] name, byte[] expected) {
+        int at = valueOffset(name);
+        if (at < 0) {
+            return MISSING;
+        }
+        if (payload[at] != '"') {
+            return DIFFERENT;
+        }
+        int end = skipValue(at) - 1; // Closing quote
+        int length = end - at - 1;
+        for (int i = at + 1; i < end; i++) {
+            if (payload[i] == '\\') {
+                return readString(at).equals(new String(expected, StandardCharsets.UTF_8)) ? EQUAL : DIFFERENT;
+            }
+        }
+        if (length != expected.length) {
+            return DIFFERENT;
+        }
+        for (int i = 0; i < length; i++) {
+            if (payload[at + 1 + i] != expected[i]) {
+                return DIFFERENT;
+            }
+        }
+        return EQUAL;
+    }
+
+    // --- Minimal scanner over the top-level JSON object ---
+
+    /**
+     * @return the offset of the first byte of {@code key}'s value, or -1 if the key is absent
+     */
+    private int valueOffset(byte[] key) {
+        int i = skipWhitespace(0);
+        if (i >= payload.length || payload[i] != '{') {
+            return -1;
+        }
+        i = skipWhitespace(i + 1);
+        while (i < payload.length && payload[i] == '"') {
+            int keyEnd = skipValue(i);
+            boolean matches = keyEnd - i - 2 == key.length && regionMatches(i + 1, key);
+            i = skipWhitespace(keyEnd);
+            if (i >= payload.length || payload[i] != ':') {
+                return -1;
+            }
+            i = skipWhitespace(i + 1);
+            if (matches) {
+                return i < payload.length ? i : -1;
+            }
+            i = skipWhitespace(skipValue(i));
+            if (i < payload.length && payload[i] == ',') {
+                i = skipWhitespace(i + 1);
+            }
+        }
+        return -1;
+    }
+
+    private boolean regionMatches(int from, byte[] key) {
+        for (int k = 0; k < key.length; k++) {
+            if (payload[from + k] != key[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the offset just past the JSON value starting at {@code i}
+     */
+    private int skipValue(int i) {
+        if (i >= payload.length) {
+            return payload.length;
+        }
+        byte b = payload[i];
+        if (b == '"') {
+            for (i++; i < payload.length; i++) {
+                if (payload[i] == '\\') {
+                    i++;
+                } else if (payload[i] == '"') {
+                    return i + 1;
+                }
+            }
+            return payload.length;
+        }
+        if (b == '{' || b == '[') {
+            int depth = 0;
+            while (i < payload.length) {
+                b = payload[i];
+                if (b == '"') {
+                    i = skipValue(i);
+                    continue;
+                }
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if ((b == '}' || b == ']') && --depth == 0) {
+                    return i + 1;
+                }
+                i++;
+            }
+            return payload.length;
+        }
+        // Number, true, false or null: runs until a structural character or whitespace
+        while (i < payload.length) {
+            b = payload[i];
+            if (b == ',' || b == '}' || b == ']' || b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private int skipWhitespace(int i) {
+        while (i < payload.length) {
+            byte b = payload[i];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    private String readString(int at) {
+        int end = skipValue(at) - 1;
+        int i = at + 1;
+        int firstEscape = -1;
+        for (int j = i; j < end; j++) {
+            if (payload[j] == '\\') {
+                firstEscape = j;
+                break;
+            }
+        }
+        if (firstEscape < 0) {
+            return new String(payload, i, end - i, StandardCharsets.UTF_8);
+        }
+
+        StringBuilder out = new StringBuilder(end - i);
+        out.append(new String(payload, i, firstEscape - i, StandardCharsets.UTF_8));
+        int runStart = firstEscape;
+        for (int j = firstEscape; j < end; ) {
+            if (payload[j] != '\\') {
+                j++;
+                continue;
+            }
+            out.append(new String(payload, runStart, j - runStart, StandardCharsets.UTF_8));
+            char escaped = (char) payload[j + 1];
+            switch (escaped) {
+                case 'b' -> out.append('\b');
+                case 'f' -> out.append('\f');
+                case 'n' -> out.append('\n');
+                case 'r' -> out.append('\r');
+                case 't' -> out.append('\t');
+                case 'u' -> {
+                    out.append((char) Integer.parseInt(new String(payload, j + 2, 4, StandardCharsets.US_ASCII), 16));
+                    j += 4;
+                }
+                default -> out.append(escaped); // \" \\ \/
+            }
+            j += 2;
+            runStart = j;
+        }
+        out.append(new String(payload, runStart, end - runStart, StandardCharsets.UTF_8));
+        return out.toString();
+    }
+}
@@ -0,0 +1,24 @@
+-- Required once when upgrading an existing (non-partitioned) users table to the normalized-email lookup.
+--
+-- UserRepo.findByEmail only matches on email_normalized. ddl-auto=update adds that column empty to a
+-- populated table, so until this script runs, nobody registered before the upgrade can log in.
+-- Run it with psql right after the first start on the new version (or before it; the column is added if missing).
+--
+-- Before running, check that no two accounts collide once emails are normalized (the unique index fails if they do):
+--   SELECT lower(trim(email)), count(*) FROM users GROUP BY 1 HAVING count(*) > 1;
+--
+-- Not needed after migrate-users-to-hash-partitions.sql, which fills the column as it copies.
+
+BEGIN;
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_normalized VARCHAR(255);
+
+-- Same normalization as User.normalizeEmail: trimmed, lower-cased
+UPDATE users SET email_normalized = lower(trim(email)) WHERE email_normalized IS NULL;
+
+ALTER TABLE users ALTER COLUMN email_normalized SET NOT NULL;
+
+-- Already there if ddl-auto=update created it as a constraint; either way lookups get an index
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_normalized_key ON users (email_normalized);
+
+COMMIT;
@@ -0,0 +1,84 @@
+-- Converts the existing single users table into the hash-partitioned layout of users-partitioned-schema.sql.
+-- Run it with psql in a maintenance window, with the application stopped, then restart the
+-- application with spring.jpa.hibernate.ddl-auto=none.
+--
+-- Before running, check that no two accounts collide once emails are normalized (the copy fails if they do):
+--   SELECT lower(trim(email)), count(*) FROM users GROUP BY 1 HAVING count(*) > 1;
+--
+-- The old table is kept as users_legacy until you drop it.
+
+BEGIN;
+
+-- Don't let new logins or registrations write to the old table while rows are copied
+LOCK TABLE users IN EXCLUSIVE MODE;
+
+-- Columns the application added after the table was first created may not be there yet
+ALTER TABLE users ADD COLUMN IF NOT EXISTS roles VARCHAR(255);
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_login_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS failed_login_attempts INTEGER;
+
+CREATE TABLE users_partitioned (
+    id                    BIGINT       NOT NULL,
+    username              VARCHAR(255),
+    email                 VARCHAR(255),
+    email_normalized      VARCHAR(255) NOT NULL,
+    password              VARCHAR(255),
+    roles                 VARCHAR(255),
+    last_login_at         TIMESTAMP(6) WITH TIME ZONE,
+    failed_login_attempts INTEGER,
+    PRIMARY KEY (email_normalized, id),
+    CONSTRAINT users_partitioned_email_normalized_key UNIQUE (email_normalized)
+) PARTITION BY HASH (email_normalized);
+
+DO $$
+BEGIN
+    FOR r IN 0..15 LOOP
+        EXECUTE format('CREATE TABLE users_partitioned_p%s PARTITION OF users_partitioned FOR VALUES WITH (MODULUS 16, REMAINDER %s)', r, r);
+    END LOOP;
+END $$;
+
+-- Each row is routed to its partition on insert; indexes are built afterwards, once, per partition
+INSERT INTO users_partitioned (id, username, email, email_normalized, password, roles, last_login_at, failed_login_attempts)
+SELECT id, username, email, lower(trim(email)), password, roles, last_login_at, failed_login_attempts
+FROM users;
+
+CREATE INDEX users_partitioned_id_idx ON users_partitioned (id);
+
+-- Keep issuing ids after the highest existing one
+CREATE SEQUENCE users_partitioned_id_seq OWNED BY users_partitioned.id;
+SELECT setval('users_partitioned_id_seq', COALESCE((SELECT max(id) FROM users_partitioned), 0) + 1, false);
+ALTER TABLE users_partitioned ALTER COLUMN id SET DEFAULT nextval('users_partitioned_id_seq');
+
+-- Swap names so the application (and users-partitioned-schema.sql) see the usual ones.
+-- Renaming a table keeps its sequence's name, so first move the old id sequence (users_id_seq when Hibernate
+-- created the table) and the old unique index out of the way. That index is a constraint when ddl-auto=update
+-- created it, and a plain unique index when backfill-users-email-normalized.sql did.
+DO $$
+DECLARE
+    legacy_seq text := pg_get_serial_sequence('users', 'id');
+BEGIN
+    IF legacy_seq IS NOT NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s RENAME TO users_legacy_id_seq', legacy_seq);
+    END IF;
+    IF EXISTS (SELECT 1 FROM pg_constraint
+               WHERE conname = 'users_email_normalized_key' AND conrelid = 'users'::regclass) THEN
+        ALTER TABLE users RENAME CONSTRAINT users_email_normalized_key TO users_legacy_email_normalized_key;
+    ELSE
+        ALTER INDEX IF EXISTS users_email_normalized_key RENAME TO users_legacy_email_normalized_key;
+    END IF;
+END $$;
+ALTER TABLE users RENAME TO users_legacy;
+ALTER TABLE users_partitioned RENAME TO users;
+ALTER SEQUENCE users_partitioned_id_seq RENAME TO users_id_seq;
+ALTER INDEX users_partitioned_id_idx RENAME TO users_id_idx;
+ALTER TABLE users RENAME CONSTRAINT users_partitioned_email_normalized_key TO users_email_normalized_key;
+DO $$
+BEGIN
+    FOR r IN 0..15 LOOP
+        EXECUTE format('ALTER TABLE users_partitioned_p%s RENAME TO users_p%s', r, r);
+    END LOOP;
+END $$;
+
+ANALYZE users;
+
+COMMIT;
@@ -0,0 +1,53 @@
+-- Hash-partitioned users table for fresh installs (PostgreSQL 11+).
+--
+-- Rows are spread over 16 partitions by the normalized email (User.normalizeEmail: trimmed, lower-cased).
+-- Every lookup goes through UserRepo.findByEmail -> email_normalized = ?, which PostgreSQL prunes to a
+-- single partition, so each lookup walks one small B-tree however large the table grows, and vacuum
+-- and reindexing work partition by partition.
+--
+-- Use with spring.jpa.hibernate.ddl-auto=none. To convert an existing users table,
+-- run migrate-users-to-hash-partitions.sql instead.
+
+CREATE SEQUENCE IF NOT EXISTS users_id_seq;
+
+CREATE TABLE IF NOT EXISTS users (
+    id                    BIGINT       NOT NULL DEFAULT nextval('users_id_seq'),
+    username              VARCHAR(255),
+    email                 VARCHAR(255),
+    email_normalized      VARCHAR(255) NOT NULL,
+    password              VARCHAR(255),
+    -- Comma-separated role names, e.g. ADMIN; written only by operators
+    roles                 VARCHAR(255),
+    last_login_at         TIMESTAMP(6) WITH TIME ZONE,
+    failed_login_attempts INTEGER,
+    -- Unique constraints on a partitioned table must include the partition key
+    PRIMARY KEY (email_normalized, id),
+    -- Lookups ignore case, so Bob@x.com and bob@x.com must not both exist
+    CONSTRAINT users_email_normalized_key UNIQUE (email_normalized)
+) PARTITION BY HASH (email_normalized);
+
+ALTER SEQUENCE users_id_seq OWNED BY users.id;
+
+-- ddl-auto=update can't alter a partitioned table, so columns added since it was first created go here
+ALTER TABLE users ADD COLUMN IF NOT EXISTS roles VARCHAR(255);
+
+-- Hibernate loads by id (findById), which can't be pruned; a partitioned index keeps that an index scan per partition
+CREATE INDEX IF NOT EXISTS users_id_idx ON users (id);
+
+-- Spelled out (no DO block) so the script also runs through spring.sql.init
+CREATE TABLE IF NOT EXISTS users_p0 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 0);
+CREATE TABLE IF NOT EXISTS users_p1 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 1);
+CREATE TABLE IF NOT EXISTS users_p2 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 2);
+CREATE TABLE IF NOT EXISTS users_p3 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 3);
+CREATE TABLE IF NOT EXISTS users_p4 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 4);
+CREATE TABLE IF NOT EXISTS users_p5 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 5);
+CREATE TABLE IF NOT EXISTS users_p6 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 6);
+CREATE TABLE IF NOT EXISTS users_p7 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 7);
+CREATE TABLE IF NOT EXISTS users_p8 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 8);
+CREATE TABLE IF NOT EXISTS users_p9 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 9);
+CREATE TABLE IF NOT EXISTS users_p10 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 10);
+CREATE TABLE IF NOT EXISTS users_p11 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 11);
+CREATE TABLE IF NOT EXISTS users_p12 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 12);
+CREATE TABLE IF NOT EXISTS users_p13 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 13);
+CREATE TABLE IF NOT EXISTS users_p14 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 14);
+CREATE TABLE IF NOT EXISTS users_p15 PARTITION OF users FOR VALUES WITH (MODULUS 16, REMAINDER 15);
@@ -1,13 +1,26 @@
 package com.example.springsecurity;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 class SpringSecurityLoginRegisterApplicationTests {
 
+	@Autowired
+	private ApplicationContext context;
+
 	@Test
 	void contextLoads() {
 	}
 
+	// Boot backs off from it when the app declares any Executor bean; MVC async streaming then gets an unbounded fallback
+	@Test
+	void keepsBootsApplicationTaskExecutor() {
+		assertTrue(context.containsBean("applicationTaskExecutor"));
+	}
+
 }
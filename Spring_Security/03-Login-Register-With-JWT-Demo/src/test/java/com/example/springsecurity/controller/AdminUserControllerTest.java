@@ -0,0 +1,115 @@
+package com.example.springsecurity.controller;
+
+import com.example.springsecurity.config.WebSecurityConfig;
+import com.example.springsecurity.dto.UserSummary;
+import com.example.springsecurity.repository.UserRepo;
+import com.example.springsecurity.service.AdminUserService;
+import com.example.springsecurity.service.UserDetailsServiceImpl;
+import com.example.springsecurity.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AdminUserController.class)
+@Import({WebSecurityConfig.class, JwtUtil.class, AdminUserService.class})
+class AdminUserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private UserRepo userRepo;
+
+    @MockitoBean
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Test
+    void pagesByKeysetUntilAShortPage() throws Exception {
+        when(userRepo.findSummariesAfter(0, Limit.of(2))).thenReturn(List.of(summary(3), summary(7)));
+        when(userRepo.findSummariesAfter(7, Limit.of(2))).thenReturn(List.of(summary(12)));
+
+        mockMvc.perform(get("/admin/users").param("limit", "2").with(user("ops@example.com").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[*].id").value(contains(3, 7)))
+                .andExpect(jsonPath("$.users[0].password").doesNotExist())
+                .andExpect(jsonPath("$.nextAfter").value(7));
+
+        mockMvc.perform(get("/admin/users").param("after", "7").param("limit", "2").with(user("ops@example.com").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[*].id").value(contains(12)))
+                .andExpect(jsonPath("$.nextAfter").value(nullValue()));
+    }
+
+    @Test
+    void rejectsPageSizesOutsideOneToAThousand() throws Exception {
+        when(userRepo.findSummariesAfter(0, Limit.of(1000))).thenReturn(List.of());
+
+        mockMvc.perform(get("/admin/users").param("limit", "0").with(user("ops@example.com").roles("ADMIN")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/admin/users").param("limit", "1001").with(user("ops@example.com").roles("ADMIN")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/admin/users").param("limit", "1000").with(user("ops@example.com").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextAfter").value(nullValue()));
+        verify(userRepo).findSummariesAfter(0, Limit.of(1000));
+    }
+
+    @Test
+    void exportsOneJsonObjectPerLine() throws Exception {
+        when(userRepo.streamAllSummaries()).thenReturn(Stream.of(
+                new UserSummary(1L, "alice", "alice@example.com", Instant.parse("2025-01-02T03:04:05Z")),
+                new UserSummary(2L, "bob", "bob@example.com", null)));
+
+        MvcResult started = mockMvc.perform(get("/admin/users/export").with(user("ops@example.com").roles("ADMIN")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(
+                        "{\"id\":1,\"username\":\"alice\",\"email\":\"alice@example.com\",\"lastLoginAt\":\"2025-01-02T03:04:05Z\"}\n"
+                                + "{\"id\":2,\"username\":\"bob\",\"email\":\"bob@example.com\",\"lastLoginAt\":null}\n"));
+        // The cursor is only read inside a (read-only) transaction
+        verify(transactionManager).getTransaction(any());
+    }
+
+    @Test
+    void forbidsUsersWithoutTheAdminRole() throws Exception {
+        mockMvc.perform(get("/admin/users").with(user("alice@example.com").roles("USER")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/admin/users/export").with(user("alice@example.com").roles("USER", "TOKEN_INTROSPECTOR")))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(userRepo);
+    }
+
+    private static UserSummary summary(long id) {
+        return new UserSummary(id, "user" + id, "user" + id + "@example.com", null);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.springsecurity.controller;
+
+import com.example.springsecurity.config.WebSecurityConfig;
+import com.example.springsecurity.service.TokenIntrospectionService;
+import com.example.springsecurity.service.UserDetailsServiceImpl;
+import com.example.springsecurity.util.JwtUtil;
+import com.example.springsecurity.util.TokenBucketRateLimiter;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+
+@WebMvcTest(controllers = TokenIntrospectionController.class, properties = {
+        "introspection.max-batch-size=300",
+        "introspection.chunk-size=16", // Several chunks per batch, so ordering across chunks is exercised
+        "introspection.rate-limit.tokens-per-second=1",
+        "introspection.rate-limit.burst=500"
+})
+@Import({WebSecurityConfig.class, JwtUtil.class, TokenIntrospectionService.class, TokenBucketRateLimiter.class})
+class TokenIntrospectionControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Value("${jwt.secret.key}")
+    private String secret;
+
+    @Value("${jwt.token.issuer}")
+    private String issuer;
+
+    @Value("${jwt.token.audience}")
+    private String audience;
+
+    @Test
+    void streamsOneResultPerTokenInRequestOrder() throws Exception {
+        List<String> subjects = IntStream.range(0, 100).mapToObj(i -> "user" + i + "@example.com").toList();
+        List<String> tokens = subjects.stream()
+                .map(subject -> jwtUtil.createToken(Map.of(JwtUtil.AUTHORITIES_CLAIM, List.of("ROLE_USER")), subject))
+                .toList();
+
+        introspect("gateway-order", tokens)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results", hasSize(100)))
+                .andExpect(jsonPath("$.results[*].sub").value(contains(subjects.toArray())))
+                .andExpect(jsonPath("$.results[0].active").value(true))
+                .andExpect(jsonPath("$.results[0].authorities[0]").value("ROLE_USER"));
+    }
+
+    @Test
+    void reportsInvalidTokensAsInactiveWithoutSayingWhy() throws Exception {
+        String valid = jwtUtil.createToken(Map.of(), "alice@example.com");
+        String tampered = valid.substring(0, valid.length() - 2) + (valid.endsWith("AA") ? "BB" : "AA");
+        String expired = token(issuer, audience, new Date(System.currentTimeMillis() - 60_000));
+        String wrongAudience = token(issuer, "some-other-api", new Date(System.currentTimeMillis() + 60_000));
+
+        introspect("gateway-invalid", List.of(tampered, expired, wrongAudience, "not-a-jwt", valid))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[*].active").value(contains(false, false, false, false, true)))
+                .andExpect(jsonPath("$.results[0].sub").doesNotExist());
+    }
+
+    @Test
+    void rejectsEmptyOversizedAndOverLimitBatches() throws Exception {
+        call("gateway-limits", List.of()).andExpect(status().isBadRequest());
+        call("gateway-limits", IntStream.range(0, 301).mapToObj(i -> "t").toList()).andExpect(status().isPayloadTooLarge());
+
+        List<String> batch = IntStream.range(0, 300).mapToObj(i -> "t").toList();
+        introspect("gateway-limits", batch).andExpect(status().isOk());
+        // 200 of the 500-token burst left; a full batch is refused without using any of it
+        call("gateway-limits", batch).andExpect(status().isTooManyRequests());
+        introspect("gateway-limits", batch.subList(0, 200)).andExpect(status().isOk());
+    }
+
+    @Test
+    void requiresTheIntrospectorRole() throws Exception {
+        mockMvc.perform(post("/tokens/introspect")
+                        .with(user("alice@example.com").roles("USER"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body(List.of("t"))))
+                .andExpect(status().isForbidden());
+    }
+
+    // Runs the streamed response to completion
+    private ResultActions introspect(String caller, List<String> tokens) throws Exception {
+        MvcResult started = call(caller, tokens)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    private ResultActions call(String caller, List<String> tokens) throws Exception {
+        return mockMvc.perform(post("/tokens/introspect")
+                .with(user(caller).roles("TOKEN_INTROSPECTOR"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body(tokens)));
+    }
+
+    private static String body(List<String> tokens) {
+        return tokens.stream().map(token -> "\"" + token + "\"").collect(Collectors.joining(",", "{\"tokens\":[", "]}"));
+    }
+
+    private String token(String issuer, String audience, Date expiration) {
+        return Jwts.builder()
+                .setSubject("alice@example.com")
+                .setIssuer(issuer)
+                .setAudience(audience)
+                .setIssuedAt(new Date(expiration.getTime() - 120_000))
+                .setExpiration(expiration)
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
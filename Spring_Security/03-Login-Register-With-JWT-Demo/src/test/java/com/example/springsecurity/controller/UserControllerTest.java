@@ -0,0 +1,78 @@
+package com.example.springsecurity.controller;
+
+import com.example.springsecurity.entity.User;
+import com.example.springsecurity.repository.UserRepo;
+import com.example.springsecurity.service.UserActivityService;
+import com.example.springsecurity.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserControllerTest {
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private UserRepo userRepo;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private UserActivityService userActivityService;
+
+    private UserController userController;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepo.findByEmail(anyString())).thenCallRealMethod();
+        userController = new UserController(jwtUtil, userRepo, passwordEncoder, authenticationManager, userActivityService);
+    }
+
+    @Test
+    void refusesAnEmailAlreadyRegisteredInAnotherCase() {
+        when(userRepo.findByEmailNormalized("alice@example.com")).thenReturn(user("alice@example.com"));
+
+        ResponseEntity<String> response = userController.register(user(" Alice@EXAMPLE.com "));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(userRepo, never()).save(any());
+    }
+
+    @Test
+    void refusesADuplicateRegisteredConcurrently() {
+        when(passwordEncoder.encode("secret")).thenReturn("hashed");
+        // Not there at the check, but the unique index on email_normalized rejects the insert
+        when(userRepo.save(any())).thenThrow(new DataIntegrityViolationException("users_email_normalized_key"));
+
+        ResponseEntity<String> response = userController.register(user("ALICE@example.com"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("secret");
+        return user;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.springsecurity.controller;
+
+import com.example.springsecurity.LoginRegisterWithJwtApplication;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Drives the same concurrent {@code /login} load (JDBC lookup + BCrypt) through the platform-thread and the
+ * virtual-thread configuration against a real PostgreSQL, and prints throughput and latency for each.
+ * The virtual-thread run is recorded with JFR and must not pin a carrier thread.
+ * <p>
+ * Excluded from the default build; run with {@code mvn test -Pbenchmarks}. The database is a Testcontainers
+ * PostgreSQL (skipped without Docker), or an existing one given with {@code -Dbenchmark.datasource.url=...}
+ * (plus {@code .username} and {@code .password}).
+ */
+@Tag("benchmark")
+class VirtualThreadLoginBenchmarkTests {
+
+    private static final int CLIENTS = 256;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(20);
+
+    private static final String EXTERNAL_URL = System.getProperty("benchmark.datasource.url");
+
+    static PostgreSQLContainer<?> postgres;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void startDatabase() {
+        if (EXTERNAL_URL == null) {
+            assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Needs Docker, or -Dbenchmark.datasource.url");
+            postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+            postgres.start();
+        }
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (postgres != null) {
+            postgres.stop();
+        }
+    }
+
+    @Test
+    void virtualThreadsServeLoginsWithoutPinning() throws Exception {
+        Result platform = run(false);
+        Result virtual;
+        Path jfr = dir.resolve("virtual.jfr");
+        try (Recording recording = new Recording()) {
+            // Report every pinned section, not just those over the default 20ms threshold
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            virtual = run(true);
+            recording.stop();
+            recording.dump(jfr);
+        }
+
+        System.out.printf("/login with %d concurrent clients for %ds%n", CLIENTS, MEASUREMENT.toSeconds());
+        System.out.println("  platform threads: " + platform);
+        System.out.println("  virtual threads:  " + virtual);
+
+        List<RecordedEvent> pinned = RecordingFile.readAllEvents(jfr).stream()
+                .filter(event -> event.getEventType().getName().equals("jdk.VirtualThreadPinned"))
+                .filter(event -> event.getStackTrace() != null && event.getStackTrace().getFrames().stream()
+                        .anyMatch(frame -> frame.getMethod().getType().getName().startsWith("com.example.springsecurity")))
+                .toList();
+        assertTrue(pinned.isEmpty(), "Carrier pinned in application code:\n" + pinned);
+
+        assertEquals(0, platform.errors(), "platform-thread run had failed requests");
+        assertEquals(0, virtual.errors(), "virtual-thread run had failed requests");
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(LoginRegisterWithJwtApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=" + (postgres != null ? postgres.getJdbcUrl() : EXTERNAL_URL),
+                "--spring.datasource.username=" + (postgres != null ? postgres.getUsername()
+                        : System.getProperty("benchmark.datasource.username", "")),
+                "--spring.datasource.password=" + (postgres != null ? postgres.getPassword()
+                        : System.getProperty("benchmark.datasource.password", "")),
+                "--spring.jpa.show-sql=false",
+                // Let callers queue for BCrypt for the whole run rather than fail fast; errors would skew p99
+                "--security.password-hashing.acquire-timeout-ms=60000");
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            HttpClient http = HttpClient.newBuilder().executor(clients).build();
+            URI base = URI.create("http://localhost:" + port);
+            // Both runs share the database, so each logs in as its own user
+            String email = (virtualThreads ? "virtual" : "platform") + "@example.com";
+            send(http, base.resolve("/register"),
+                    "{\"username\":\"bench\",\"email\":\"" + email + "\",\"password\":\"secret\"}");
+            String credentials = "{\"email\":\"" + email + "\",\"password\":\"secret\"}";
+
+            load(http, base, credentials, clients, WARMUP);
+            return load(http, base, credentials, clients, MEASUREMENT);
+        }
+    }
+
+    private static Result load(HttpClient http, URI base, String credentials, ExecutorService clients,
+                               Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            futures.add(clients.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    int status = send(http, base.resolve("/login"), credentials).statusCode();
+                    if (status != 200) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        long[] all = new long[0];
+        for (Future<long[]> future : futures) {
+            long[] latencies = future.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + latencies.length);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+        }
+        Arrays.sort(all);
+        return new Result(all.length / (double) duration.toSeconds(),
+                percentileMillis(all, 50), percentileMillis(all, 99), errors.get());
+    }
+
+    private static HttpResponse<String> send(HttpClient http, URI uri, String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static double percentileMillis(long[] sorted, int percentile) {
+        return sorted.length == 0 ? Double.NaN : sorted[(sorted.length - 1) * percentile / 100] / 1e6;
+    }
+
+    private record Result(double requestsPerSecond, double p50Millis, double p99Millis, int errors) {
+
+        @Override
+        public String toString() {
+            return "%,.0f req/s, p50 %.1fms, p99 %.1fms, %d errors".formatted(requestsPerSecond, p50Millis, p99Millis, errors);
+        }
+    }
+}
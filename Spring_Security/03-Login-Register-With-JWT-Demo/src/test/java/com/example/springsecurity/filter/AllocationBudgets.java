@@ -0,0 +1,101 @@
+package com.example.springsecurity.filter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures bytes allocated per operation with the current thread's allocation counter and checks them
+ * against the budgets checked in at {@code src/test/resources/allocation-budgets.properties}.
+ * <p>
+ * Budgets are keyed by JDK feature release ({@code <name>.jdk21}), since allocation changes between
+ * JDKs; on a JDK with no recorded budget the check is skipped rather than judged against another
+ * JDK's numbers. Run with {@code -Dallocation.rebaseline=true} to record measurements (plus headroom)
+ * for the running JDK into {@code target/allocation-budgets.properties} instead of failing; copy the
+ * lines you accept back into the checked-in file.
+ */
+final class AllocationBudgets {
+
+    private static final String BUDGET_FILE = "allocation-budgets.properties";
+    private static final Path REBASELINE_FILE = Path.of("target", BUDGET_FILE);
+    private static final String JDK_SUFFIX = ".jdk" + Runtime.version().feature();
+    // Headroom is 25% of the measurement, but never less than this, so tiny budgets don't flake
+    private static final long MIN_HEADROOM_BYTES = 256;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final Properties BUDGETS = load();
+
+    private AllocationBudgets() {
+    }
+
+    /**
+     * Runs {@code operation} {@code warmup} times so the JIT settles, then returns the average
+     * bytes allocated by this thread over {@code iterations} more runs.
+     */
+    static long bytesPerOperation(int warmup, int iterations, Runnable operation) {
+        for (int i = 0; i < warmup; i++) {
+            operation.run();
+        }
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        return (THREADS.getCurrentThreadAllocatedBytes() - before) / iterations;
+    }
+
+    static void assertWithinBudget(String name, long measuredBytes) {
+        if (Boolean.getBoolean("allocation.rebaseline")) {
+            rebaseline(name, measuredBytes);
+            return;
+        }
+        String key = name + JDK_SUFFIX;
+        String budget = BUDGETS.getProperty(key);
+        assumeTrue(budget != null, "No allocation budget '" + key + "' in " + BUDGET_FILE + " for JDK "
+                + Runtime.version() + "; record one with -Dallocation.rebaseline=true");
+        long budgetBytes = Long.parseLong(budget.trim());
+        assertTrue(measuredBytes <= budgetBytes, key + " allocates " + measuredBytes
+                + " bytes per request, over its budget of " + budgetBytes + " bytes (" + BUDGET_FILE + ")");
+    }
+
+    private static synchronized void rebaseline(String name, long measuredBytes) {
+        try {
+            Properties recorded = new Properties();
+            if (Files.exists(REBASELINE_FILE)) {
+                try (InputStream in = Files.newInputStream(REBASELINE_FILE)) {
+                    recorded.load(in);
+                }
+            }
+            long headroom = Math.max(measuredBytes / 4, MIN_HEADROOM_BYTES);
+            recorded.setProperty(name + JDK_SUFFIX, Long.toString(measuredBytes + headroom));
+            Files.createDirectories(REBASELINE_FILE.getParent());
+            try (OutputStream out = Files.newOutputStream(REBASELINE_FILE)) {
+                recorded.store(out, "Measured allocation per request on JDK " + Runtime.version()
+                        + " + max(25%, " + MIN_HEADROOM_BYTES + " bytes)");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Properties load() {
+        Properties budgets = new Properties();
+        try (InputStream in = AllocationBudgets.class.getClassLoader().getResourceAsStream(BUDGET_FILE)) {
+            if (in != null) {
+                budgets.load(in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return budgets;
+    }
+}
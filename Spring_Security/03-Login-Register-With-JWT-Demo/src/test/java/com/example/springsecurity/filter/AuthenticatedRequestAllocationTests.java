@@ -0,0 +1,107 @@
+package com.example.springsecurity.filter;
+
+import com.example.springsecurity.entity.User;
+import com.example.springsecurity.repository.UserRepo;
+import com.example.springsecurity.service.UserDetailsServiceImpl;
+import com.example.springsecurity.util.JwtUtil;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Allocation budgets for the authenticated request path: a request carrying a valid bearer token
+ * through {@link JwtAuthenticationFilter}, and the user lookup it triggers. Budgets live in
+ * {@code allocation-budgets.properties}; see {@link AllocationBudgets}.
+ */
+class AuthenticatedRequestAllocationTests {
+
+    private static final String EMAIL = "user@example.com";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private final UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl(stubRepo());
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void jwtFilterWithJjwt() {
+        assertFilterWithinBudget("jwt-filter.jjwt", false);
+    }
+
+    @Test
+    void jwtFilterWithFastVerifier() {
+        assertFilterWithinBudget("jwt-filter.fast-path", true);
+    }
+
+    @Test
+    void loadUserByUsername() {
+        long bytes = AllocationBudgets.bytesPerOperation(20_000, 100_000,
+                () -> userDetailsService.loadUserByUsername(EMAIL));
+        AllocationBudgets.assertWithinBudget("user-details-service.load-user", bytes);
+    }
+
+    private void assertFilterWithinBudget(String budget, boolean fastPath) {
+        JwtUtil jwtUtil = jwtUtil(fastPath);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService);
+        String token = jwtUtil.generateToken(userDetailsService.loadUserByUsername(EMAIL));
+
+        // Same request and response every time, so only the filter's own allocations are counted
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/welcome");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        long bytes = AllocationBudgets.bytesPerOperation(5_000, 20_000, () -> {
+            SecurityContextHolder.clearContext();
+            try {
+                filter.doFilterInternal(request, response, NO_OP_CHAIN);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        AllocationBudgets.assertWithinBudget(budget, bytes);
+    }
+
+    private static JwtUtil jwtUtil(boolean fastPath) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET_BASE64", "a1b2c3d4e5f6g7h8i9j0k1l2m3n4o5p6q7r8s9t0u1v2w3x4y5z6A7B8C9D0E1F2G3H4I5J6");
+        ReflectionTestUtils.setField(jwtUtil, "JWT_TOKEN_VALIDITY", 3_600_000L);
+        ReflectionTestUtils.setField(jwtUtil, "TOKEN_ISSUER", "dev-auth-server");
+        ReflectionTestUtils.setField(jwtUtil, "TOKEN_AUDIENCE", "dev-resource-api-v2");
+        ReflectionTestUtils.setField(jwtUtil, "FAST_PATH_ENABLED", fastPath);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "initFastVerifier");
+        return jwtUtil;
+    }
+
+    /**
+     * UserRepo answering findByEmail from memory; a plain proxy rather than a Mockito mock,
+     * which would record (and allocate for) every invocation.
+     */
+    private static UserRepo stubRepo() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("user");
+        user.setEmail(EMAIL);
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3KqOHMUGzcHGGlL3ekDT.8K");
+        return (UserRepo) Proxy.newProxyInstance(UserRepo.class.getClassLoader(), new Class<?>[]{UserRepo.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByEmail")) {
+                        return EMAIL.equals(args[0]) ? user : null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.springsecurity.repository;
+
+import com.example.springsecurity.service.AdminUserService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keyset paging and the NDJSON export over 1M users in a real PostgreSQL (skipped without Docker).
+ * Prints keyset and OFFSET timings at the first and the last page for comparison.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.show-sql=false",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/users-partitioned-schema.sql"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class AdminUserListingBenchmarkTests {
+
+    private static final int USERS = 1_000_000;
+    private static final int PAGE = 100;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private AdminUserService adminUserService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void loadUsers(@Autowired JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("""
+                INSERT INTO users (username, email, email_normalized, password)
+                SELECT 'user' || g, 'user' || g || '@example.com', 'user' || g || '@example.com', 'x'
+                FROM generate_series(1, ?) g""", USERS);
+        jdbcTemplate.execute("ANALYZE users");
+    }
+
+    @Test
+    void deepKeysetPagesCostTheSameAsTheFirst() {
+        long lastPageStart = maxId() - PAGE;
+
+        long keysetFirst = medianNanos(() -> userRepo.findSummariesAfter(0, Limit.of(PAGE)));
+        long keysetDeep = medianNanos(() -> userRepo.findSummariesAfter(lastPageStart, Limit.of(PAGE)));
+        long offsetFirst = medianNanos(() -> offsetPage(0));
+        long offsetDeep = medianNanos(() -> offsetPage(USERS - PAGE));
+        System.out.printf("page of %d at depth 0 / %,d: keyset %dus / %dus, offset %dus / %dus%n", PAGE, USERS - PAGE,
+                keysetFirst / 1_000, keysetDeep / 1_000, offsetFirst / 1_000, offsetDeep / 1_000);
+
+        assertEquals(PAGE, userRepo.findSummariesAfter(lastPageStart, Limit.of(PAGE)).size());
+        // Same cost at any depth; 3x plus a millisecond absorbs noise on shared CI machines
+        assertTrue(keysetDeep <= 3 * keysetFirst + 1_000_000,
+                "keyset page at depth " + USERS + " took " + keysetDeep / 1_000 + "us vs " + keysetFirst / 1_000 + "us for the first");
+    }
+
+    @Test
+    void exportStreamsEveryUserAsOneLine() {
+        CountingOutputStream out = new CountingOutputStream();
+        adminUserService.exportUsers(out);
+        assertEquals(USERS, out.lines);
+    }
+
+    private long maxId() {
+        return jdbcTemplate.queryForObject("SELECT max(id) FROM users", Long.class);
+    }
+
+    // What JpaRepository.findAll(Pageable) runs, minus its count query
+    private List<Long> offsetPage(int offset) {
+        return jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id OFFSET ? LIMIT ?", Long.class, offset, PAGE);
+    }
+
+    private static long medianNanos(Supplier<?> query) {
+        for (int i = 0; i < 20; i++) {
+            query.get();
+        }
+        long[] samples = new long[101];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            query.get();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+
+    /**
+     * Counts NDJSON lines without keeping the export in memory.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+    }
+}
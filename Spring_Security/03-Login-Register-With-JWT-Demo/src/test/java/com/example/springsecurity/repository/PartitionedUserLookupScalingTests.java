@@ -0,0 +1,117 @@
+package com.example.springsecurity.repository;
+
+import com.example.springsecurity.entity.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs UserRepo against the hash-partitioned schema in a real PostgreSQL (skipped without Docker).
+ * Loads 1M rows, so it only runs with {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.show-sql=false",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/users-partitioned-schema.sql"
+})
+@Testcontainers(disabledWithoutDocker = true)
+class PartitionedUserLookupScalingTests {
+
+    private static final Pattern PARTITION = Pattern.compile("users_p\\d+");
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void emailLookupsTouchASinglePartition() {
+        growTo(1_000);
+
+        List<String> plan = jdbcTemplate.queryForList(
+                "EXPLAIN SELECT * FROM users WHERE email_normalized = 'user42@example.com'", String.class);
+        Set<String> partitions = plan.stream()
+                .map(PARTITION::matcher)
+                .filter(Matcher::find)
+                .map(Matcher::group)
+                .collect(Collectors.toSet());
+        assertEquals(1, partitions.size(), String.join("\n", plan));
+
+        // Lookups are case and whitespace insensitive: same partition, same row
+        User user = userRepo.findByEmail("  User42@Example.COM ");
+        assertNotNull(user);
+        assertEquals("user42@example.com", user.getEmailNormalized());
+    }
+
+    @Test
+    void lookupLatencyStaysFlatAsTheTableGrows() {
+        long p99AtTenThousand = p99LookupNanos(10_000);
+        p99LookupNanos(100_000);
+        long p99AtOneMillion = p99LookupNanos(1_000_000);
+
+        // 100x the rows; allow 3x plus a millisecond for noise on shared CI machines
+        assertTrue(p99AtOneMillion <= 3 * p99AtTenThousand + 1_000_000,
+                "p99 grew from " + p99AtTenThousand / 1_000 + "us at 10k rows to " + p99AtOneMillion / 1_000 + "us at 1M rows");
+    }
+
+    private long p99LookupNanos(int rows) {
+        int size = growTo(rows);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 500; i++) {
+            userRepo.findByEmail("user" + (random.nextInt(size) + 1) + "@example.com");
+        }
+
+        long[] samples = new long[2_000];
+        for (int i = 0; i < samples.length; i++) {
+            String email = "user" + (random.nextInt(size) + 1) + "@example.com";
+            long start = System.nanoTime();
+            User user = userRepo.findByEmail(email);
+            samples[i] = System.nanoTime() - start;
+            assertNotNull(user, email);
+        }
+        Arrays.sort(samples);
+        long p99 = samples[samples.length * 99 / 100];
+        System.out.printf("users=%,d p50=%dus p99=%dus%n", size, samples[samples.length / 2] / 1_000, p99 / 1_000);
+        return p99;
+    }
+
+    /**
+     * Inserts user{n}@example.com rows until the table holds {@code rows} of them.
+     */
+    private int growTo(int rows) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Integer.class);
+        if (existing < rows) {
+            jdbcTemplate.update("""
+                    INSERT INTO users (username, email, email_normalized, password)
+                    SELECT 'user' || g, 'user' || g || '@example.com', 'user' || g || '@example.com', 'x'
+                    FROM generate_series(?, ?) g""", existing + 1, rows);
+            jdbcTemplate.execute("ANALYZE users");
+        }
+        return Math.max(existing, rows);
+    }
+}
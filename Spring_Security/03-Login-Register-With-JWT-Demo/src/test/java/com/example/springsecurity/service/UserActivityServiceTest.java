@@ -0,0 +1,160 @@
+package com.example.springsecurity.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserActivityServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> successes;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> failures;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserActivityService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserActivityService(jdbcTemplate, taskScheduler, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(service, "flushThreshold", 3);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        ReflectionTestUtils.setField(service, "maxPending", 5);
+    }
+
+    @Test
+    void coalescesOutcomesPerUserUntilFlushed() {
+        service.recordLoginFailure("a@example.com");
+        service.recordLoginFailure("a@example.com");
+        service.recordLoginSuccess("a@example.com");
+        service.recordLoginFailure("a@example.com");
+        service.recordLoginFailure("b@example.com");
+        service.recordLoginFailure("b@example.com");
+
+        verifyNoInteractions(jdbcTemplate);
+        assertEquals(2, service.getPendingCount());
+        assertEquals(2.0, meterRegistry.get("user.activity.pending").gauge().value());
+
+        service.flush();
+
+        verify(jdbcTemplate).batchUpdate(
+                eq("UPDATE users SET last_login_at = ?, failed_login_attempts = ? WHERE email_normalized = ?"), successes.capture());
+        assertEquals(1, successes.getValue().size());
+        // The success reset the counter; only the failure after it remains
+        assertEquals(1, successes.getValue().get(0)[1]);
+        assertEquals("a@example.com", successes.getValue().get(0)[2]);
+
+        verify(jdbcTemplate).batchUpdate(
+                eq("UPDATE users SET failed_login_attempts = COALESCE(failed_login_attempts, 0) + ? WHERE email_normalized = ?"), failures.capture());
+        assertArrayEquals(new Object[]{2, "b@example.com"}, failures.getValue().get(0));
+
+        assertEquals(0, service.getPendingCount());
+    }
+
+    @Test
+    void schedulesAFlushOnceTheThresholdIsReached() {
+        service.recordLoginFailure("a@example.com");
+        service.recordLoginFailure("b@example.com");
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+
+        service.recordLoginFailure("c@example.com");
+        service.recordLoginFailure("d@example.com");
+        // One flush requested until it runs, not one per login past the threshold
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        verifyNoInteractions(jdbcTemplate);
+
+        service.flush();
+        service.recordLoginFailure("e@example.com");
+        service.recordLoginFailure("f@example.com");
+        service.recordLoginFailure("g@example.com");
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void dropsFailuresForNewEmailsOncePendingIsFull() {
+        ReflectionTestUtils.setField(service, "flushThreshold", 100);
+        for (int i = 0; i < 5; i++) {
+            service.recordLoginFailure("user" + i + "@example.com");
+        }
+        service.recordLoginFailure("guessed@example.com");
+        assertEquals(5, service.getPendingCount());
+
+        // Users already pending still count, and successes always do
+        service.recordLoginFailure("user0@example.com");
+        service.recordLoginSuccess("someone@example.com");
+        assertEquals(6, service.getPendingCount());
+
+        service.flush();
+        verify(jdbcTemplate).batchUpdate(
+                eq("UPDATE users SET failed_login_attempts = COALESCE(failed_login_attempts, 0) + ? WHERE email_normalized = ?"), failures.capture());
+        assertEquals(2, failures.getValue().stream()
+                .filter(row -> row[1].equals("user0@example.com")).findFirst().orElseThrow()[0]);
+    }
+
+    @Test
+    void rollsBackAndKeepsTheWholeBatchWhenTheSecondUpdateFails() {
+        TransactionStatus transaction = mock(TransactionStatus.class);
+        when(transactionManager.getTransaction(any())).thenReturn(transaction);
+        // The success update goes through, the failure update after it doesn't
+        when(jdbcTemplate.batchUpdate(any(String.class), anyList()))
+                .thenReturn(new int[]{1})
+                .thenThrow(new IllegalStateException("database down"));
+        service.recordLoginSuccess("a@example.com");
+        service.recordLoginFailure("b@example.com");
+
+        assertThrows(IllegalStateException.class, service::flush);
+
+        verify(transactionManager).rollback(transaction);
+        verify(transactionManager, never()).commit(transaction);
+        assertEquals(2, service.getPendingCount());
+    }
+
+    @Test
+    void keepsTheBacklogWhenTheWriteFails() {
+        when(jdbcTemplate.batchUpdate(any(String.class), anyList())).thenThrow(new IllegalStateException("database down"));
+        service.recordLoginFailure("a@example.com");
+
+        assertThrows(IllegalStateException.class, service::flush);
+        service.recordLoginFailure("a@example.com");
+
+        assertEquals(1, service.getPendingCount());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.springsecurity.service;
+
+import com.example.springsecurity.entity.User;
+import com.example.springsecurity.repository.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceImplTest {
+
+    @Mock
+    private UserRepo userRepo;
+
+    private UserDetailsServiceImpl userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepo.findByEmail(anyString())).thenCallRealMethod();
+        userDetailsService = new UserDetailsServiceImpl(userRepo);
+    }
+
+    @Test
+    void grantsTheRolesListedInTheRolesColumn() {
+        when(userRepo.findByEmailNormalized("ops@example.com")).thenReturn(user(" ADMIN, TOKEN_INTROSPECTOR ,,"));
+
+        UserDetails details = userDetailsService.loadUserByUsername("Ops@Example.com");
+
+        assertEquals("ops@example.com", details.getUsername());
+        assertEquals(Set.of("ROLE_ADMIN", "ROLE_TOKEN_INTROSPECTOR"), AuthorityUtils.authorityListToSet(details.getAuthorities()));
+    }
+
+    @Test
+    void grantsNothingWithoutRoles() {
+        for (String roles : new String[] {null, "", " , "}) {
+            when(userRepo.findByEmailNormalized("ops@example.com")).thenReturn(user(roles));
+
+            assertEquals(List.of(), List.copyOf(userDetailsService.loadUserByUsername("ops@example.com").getAuthorities()));
+        }
+    }
+
+    @Test
+    void rejectsUnknownEmails() {
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("nobody@example.com"));
+    }
+
+    private static User user(String roles) {
+        User user = new User();
+        user.setEmail("ops@example.com");
+        user.setPassword("{noop}secret");
+        user.setRoles(roles);
+        return user;
+    }
+}
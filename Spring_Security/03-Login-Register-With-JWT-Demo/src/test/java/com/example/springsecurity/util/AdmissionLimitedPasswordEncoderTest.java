@@ -0,0 +1,94 @@
+package com.example.springsecurity.util;
+
+import com.example.springsecurity.util.AdmissionLimitedPasswordEncoder.PasswordHashingCapacityException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionLimitedPasswordEncoderTest {
+
+    @Test
+    void neverRunsMoreHashesThanTheLimit() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        PasswordEncoder slow = new StubEncoder(() -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(5);
+            running.decrementAndGet();
+        });
+        AdmissionLimitedPasswordEncoder encoder = new AdmissionLimitedPasswordEncoder(slow, 2, 10_000);
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 100; i++) {
+                callers.submit(() -> encoder.matches("secret", "hash"));
+            }
+        }
+
+        assertEquals(2, maxRunning.get());
+        assertEquals(2, encoder.getAvailablePermits());
+    }
+
+    @Test
+    void failsFastOnceTheWaitExceedsTheTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AdmissionLimitedPasswordEncoder encoder = new AdmissionLimitedPasswordEncoder(
+                new StubEncoder(() -> await(release)), 1, 50);
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> holder = callers.submit(() -> encoder.encode("secret"));
+            while (encoder.getAvailablePermits() > 0) {
+                Thread.onSpinWait();
+            }
+
+            assertThrows(PasswordHashingCapacityException.class, () -> encoder.matches("secret", "hash"));
+
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        }
+        assertTrue(encoder.matches("secret", "hash"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Runs {@code work} in place of hashing and accepts any password.
+     */
+    private record StubEncoder(Runnable work) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            work.run();
+            return "hash";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            work.run();
+            return true;
+        }
+    }
+}
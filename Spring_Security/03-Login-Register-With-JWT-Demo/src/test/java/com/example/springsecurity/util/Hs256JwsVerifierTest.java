@@ -0,0 +1,180 @@
+package com.example.springsecurity.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential tests: every token must get the same verdict (and the same claims, or the same
+ * exception type) from {@link Hs256JwsVerifier} as from the jjwt parser configured like {@link JwtUtil}.
+ */
+class Hs256JwsVerifierTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(SECRET);
+    private static final String ISSUER = "dev-auth-server";
+    private static final String AUDIENCE = "dev-resource-api-v2";
+    private static final long NOW = 1_760_000_000_000L;
+
+    private final Hs256JwsVerifier verifier =
+            new Hs256JwsVerifier(SECRET, ISSUER, AUDIENCE, Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+
+    private final JwtParser jjwt = Jwts.parserBuilder()
+            .setSigningKey(KEY)
+            .requireIssuer(ISSUER)
+            .requireAudience(AUDIENCE)
+            .setClock(() -> new Date(NOW))
+            .build();
+
+    @Test
+    void acceptsValidTokensWithTheSameClaims() {
+        for (String subject : List.of("user@example.com", "ünïcødé@example.com", "quote\"back\\slash", "tab\tnew\nline", "😀")) {
+            assertSameOutcome(token(subject, ISSUER, AUDIENCE, NOW + 60_000, KEY));
+        }
+        // Extra claims before and after the ones we read, including nested values containing braces and quotes
+        assertSameOutcome(Jwts.builder()
+                .setClaims(Map.of("authorities", List.of("ROLE_USER", "}{\""), "profile", Map.of("a", List.of(1, 2))))
+                .setSubject("user@example.com")
+                .setIssuer(ISSUER)
+                .setAudience(AUDIENCE)
+                .setExpiration(new Date(NOW + 60_000))
+                .signWith(KEY, SignatureAlgorithm.HS256)
+                .compact());
+    }
+
+    @Test
+    void rejectsTheSameWayAsJjwt() {
+        assertSameOutcome(token("user", ISSUER, AUDIENCE, NOW - 1_000, KEY)); // Expired
+        assertSameOutcome(token("user", ISSUER, AUDIENCE, NOW, KEY)); // Expires exactly now: still valid
+        assertSameOutcome(token("user", "someone-else", AUDIENCE, NOW + 60_000, KEY));
+        assertSameOutcome(token("user", null, AUDIENCE, NOW + 60_000, KEY));
+        assertSameOutcome(token("user", ISSUER, "other-api", NOW + 60_000, KEY));
+        assertSameOutcome(token("user", ISSUER, null, NOW + 60_000, KEY));
+        assertSameOutcome(token("user", ISSUER, AUDIENCE, NOW + 60_000,
+                Keys.hmacShaKeyFor("fedcba9876543210fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII))));
+        assertSameOutcome("not-a-token");
+        assertSameOutcome("a.b.c.d");
+
+        String valid = token("user", ISSUER, AUDIENCE, NOW + 60_000, KEY);
+        assertSameOutcome(valid.substring(0, valid.length() - 1)); // Truncated signature
+        String unsigned = valid.substring(0, valid.lastIndexOf('.') + 1);
+        assertFalse(accepted(() -> jjwt.parseClaimsJws(unsigned).getBody().getSubject()));
+        assertFalse(accepted(() -> verifier.verify(unsigned).getSubject()));
+    }
+
+    @Test
+    void agreesOnRandomlyMutatedTokens() {
+        String valid = token("user@example.com", ISSUER, AUDIENCE, NOW + 60_000, KEY);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_.";
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            char[] chars = valid.toCharArray();
+            // The last signature character carries 2 padding bits that jjwt ignores when decoding,
+            // while we compare encoded characters; we are deliberately stricter there, so leave it alone
+            chars[random.nextInt(chars.length - 1)] = alphabet.charAt(random.nextInt(alphabet.length()));
+            String mutated = new String(chars);
+            if (mutated.startsWith(Hs256JwsVerifier.HS256_HEADER + ".")) {
+                assertEquals(accepted(() -> jjwt.parseClaimsJws(mutated).getBody().getSubject()),
+                        accepted(() -> verifier.verify(mutated).getSubject()), mutated);
+            }
+        }
+    }
+
+    @Test
+    void verifiesConcurrentlyOnVirtualThreads() throws Exception {
+        // Far more virtual threads than the pool holds (4 per CPU), so scratch is both borrowed and created on demand;
+        // long subjects make some tokens outgrow the initial signing-input buffer
+        List<Callable<String>> checks = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            String subject = "user" + i + "@example.com" + (i % 7 == 0 ? "x".repeat(600) : "");
+            String valid = token(subject, ISSUER, AUDIENCE, NOW + 60_000, KEY);
+            String tampered = valid.substring(0, valid.length() - 2) + (valid.endsWith("AA") ? "BB" : "AA");
+            checks.add(() -> {
+                assertTrue(Thread.currentThread().isVirtual());
+                String verdict = verifier.verify(valid).getSubject().equals(subject) ? "valid" : "wrong subject";
+                return verdict + "," + (accepted(() -> verifier.verify(tampered).getSubject()) ? "tampered accepted" : "tampered rejected");
+            });
+        }
+
+        List<Future<String>> results;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            results = executor.invokeAll(checks);
+        }
+        for (Future<String> result : results) {
+            assertEquals("valid,tampered rejected", result.get());
+        }
+    }
+
+    @Test
+    void leavesOtherAlgorithmsToJjwt() {
+        String hs512 = Jwts.builder()
+                .setSubject("user")
+                .setIssuer(ISSUER)
+                .setAudience(AUDIENCE)
+                .signWith(Keys.hmacShaKeyFor(new byte[64]), SignatureAlgorithm.HS512)
+                .compact();
+        assertNull(verifier.verify(hs512));
+    }
+
+    private void assertSameOutcome(String token) {
+        assertEquals(outcome(() -> {
+            Claims claims = jjwt.parseClaimsJws(token).getBody();
+            return claims.getSubject() + "|" + claims.getExpiration();
+        }), outcome(() -> {
+            VerifiedJws jws = verifier.verify(token);
+            return jws.getSubject() + "|" + jws.getExpiration();
+        }), token);
+    }
+
+    private static String outcome(Supplier<String> verification) {
+        try {
+            return "accepted " + verification.get();
+        } catch (RuntimeException e) {
+            return "rejected " + e.getClass().getSimpleName();
+        }
+    }
+
+    private static boolean accepted(Supplier<String> verification) {
+        try {
+            verification.get();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static String token(String subject, String issuer, String audience, long expiresAtMillis, SecretKey key) {
+        return Jwts.builder()
+                .setSubject(subject)
+                .setIssuer(issuer)
+                .setAudience(audience)
+                .setIssuedAt(new Date(NOW))
+                .setExpiration(new Date(expiresAtMillis))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
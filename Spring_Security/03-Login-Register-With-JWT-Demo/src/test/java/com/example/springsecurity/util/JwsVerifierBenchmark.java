@@ -0,0 +1,92 @@
+package com.example.springsecurity.util;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation of the jjwt path used by {@link JwtUtil} against {@link Hs256JwsVerifier},
+ * both reading the subject of the same token, the way {@code JwtAuthenticationFilter} does.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.springsecurity.util.JwsVerifierBenchmark};
+ * the GC profiler's {@code gc.alloc.rate.norm} column is the bytes allocated per verification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwsVerifierBenchmark {
+
+    private static final String SECRET_BASE64 = "a1b2c3d4e5f6g7h8i9j0k1l2m3n4o5p6q7r8s9t0u1v2w3x4y5z6A7B8C9D0E1F2G3H4I5J6";
+    private static final String ISSUER = "dev-auth-server";
+    private static final String AUDIENCE = "dev-resource-api-v2";
+
+    private String token;
+    private Hs256JwsVerifier verifier;
+
+    @Setup
+    public void setUp() {
+        byte[] secret = Decoders.BASE64.decode(SECRET_BASE64);
+        long now = System.currentTimeMillis();
+        token = Jwts.builder()
+                .setClaims(Map.of(JwtUtil.AUTHORITIES_CLAIM, List.of("ROLE_USER")))
+                .setSubject("user@example.com")
+                .setIssuer(ISSUER)
+                .setAudience(AUDIENCE)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(secret), SignatureAlgorithm.HS256)
+                .compact();
+        verifier = new Hs256JwsVerifier(secret, ISSUER, AUDIENCE);
+    }
+
+    /**
+     * Mirrors JwtUtil.extractAllClaims: key decoded and parser built on every call.
+     */
+    @Benchmark
+    public String jjwt() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_BASE64)))
+                .requireIssuer(ISSUER)
+                .requireAudience(AUDIENCE)
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String hs256JwsVerifier() {
+        return verifier.verify(token).getSubject();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwsVerifierBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
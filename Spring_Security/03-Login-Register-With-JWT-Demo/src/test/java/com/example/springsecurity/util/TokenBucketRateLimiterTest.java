@@ -0,0 +1,42 @@
+package com.example.springsecurity.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void chargesPerPermitAndRefusesWithoutTakingAnything() {
+        TokenBucketRateLimiter limiter = limiter(1, 10);
+
+        assertTrue(limiter.tryAcquire("gateway", 6));
+        assertFalse(limiter.tryAcquire("gateway", 6));
+        assertTrue(limiter.tryAcquire("gateway", 4));
+        assertTrue(limiter.tryAcquire("other", 10));
+    }
+
+    @Test
+    void evictsBucketsOnceTheyHaveRefilled() throws InterruptedException {
+        // Refills 10 permits in 100ms
+        TokenBucketRateLimiter limiter = limiter(100, 10);
+        limiter.tryAcquire("gateway", 10);
+        limiter.evictIdleBuckets();
+        assertEquals(1, limiter.size());
+
+        Thread.sleep(150);
+        limiter.evictIdleBuckets();
+        assertEquals(0, limiter.size());
+        assertTrue(limiter.tryAcquire("gateway", 10));
+    }
+
+    private static TokenBucketRateLimiter limiter(long permitsPerSecond, long burst) {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter();
+        ReflectionTestUtils.setField(limiter, "permitsPerSecond", permitsPerSecond);
+        ReflectionTestUtils.setField(limiter, "burst", burst);
+        return limiter;
+    }
+}